@@ -0,0 +1,97 @@
+package uk.ac.soton.comp1206.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.ac.soton.comp1206.game.BitBoard;
+import uk.ac.soton.comp1206.game.GameCore;
+import uk.ac.soton.comp1206.game.GamePiece;
+import uk.ac.soton.comp1206.game.PieceSequence;
+
+/**
+ * Benchmarks checking for and clearing full lines after a piece is played. Each run resets the board, plays a line
+ * piece across the middle row and then runs afterPiece on the core.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AfterPieceBenchmark {
+
+    @Param({"5", "8", "16", "32", "64"})
+    public int size;
+
+    private GameCore core;
+
+    /**
+     * A board where the line piece completes the middle row
+     */
+    private BitBoard completing;
+
+    /**
+     * A board where the line piece completes nothing
+     */
+    private BitBoard empty;
+
+    private final GamePiece line = GamePiece.createPiece(0);
+
+    /**
+     * Build the boards
+     */
+    @Setup
+    public void setup() {
+        core = new GameCore(size, size, new PieceSequence(1206));
+        empty = new BitBoard(size, size);
+        completing = new BitBoard(size, size);
+        int middle = size / 2;
+        for (int x = 0; x < size; x++) {
+            if (Math.abs(x - middle) > 1) {
+                completing.set(x, middle, 1);
+            }
+        }
+    }
+
+    /**
+     * Play a piece which clears a row
+     *
+     * @return lines cleared
+     */
+    @Benchmark
+    public int afterPieceClearing() {
+        return playAndCheck(completing);
+    }
+
+    /**
+     * Play a piece which clears nothing
+     *
+     * @return lines cleared
+     */
+    @Benchmark
+    public int afterPieceNoClear() {
+        return playAndCheck(empty);
+    }
+
+    /**
+     * Reset the core's board, play the line piece in the middle and check for full lines
+     *
+     * @param template the board to start from
+     * @return lines cleared
+     */
+    private int playAndCheck(BitBoard template) {
+        BitBoard board = core.getBoard();
+        board.copyFrom(template);
+        board.play(line.getShape(), line.getValue(), size / 2, size / 2);
+        return core.afterPiece();
+    }
+}
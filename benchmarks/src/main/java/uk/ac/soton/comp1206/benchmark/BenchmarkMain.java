@@ -0,0 +1,30 @@
+package uk.ac.soton.comp1206.benchmark;
+
+/**
+ * Runs the benchmarks, passing any arguments on to JMH. Game logging is turned down first so it does not swamp the
+ * measurements; the setting is passed on to the forked benchmark JVMs.
+ */
+public final class BenchmarkMain {
+
+    /**
+     * The log4j configuration used while benchmarking
+     */
+    static final String LOG_CONFIG = "log4j2-benchmark.xml";
+
+    private BenchmarkMain() {
+    }
+
+    /**
+     * Run the benchmarks
+     *
+     * @param args arguments for JMH
+     * @throws Exception if JMH fails
+     */
+    public static void main(String[] args) throws Exception {
+        String[] jmhArgs = new String[args.length + 2];
+        jmhArgs[0] = "-jvmArgsAppend";
+        jmhArgs[1] = "-Dlog4j2.configurationFile=" + LOG_CONFIG;
+        System.arraycopy(args, 0, jmhArgs, 2, args.length);
+        org.openjdk.jmh.Main.main(jmhArgs);
+    }
+}
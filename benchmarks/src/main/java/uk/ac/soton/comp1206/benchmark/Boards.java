@@ -0,0 +1,47 @@
+package uk.ac.soton.comp1206.benchmark;
+
+import java.util.SplittableRandom;
+import uk.ac.soton.comp1206.game.BitBoard;
+import uk.ac.soton.comp1206.game.GamePiece;
+
+/**
+ * Helpers for building the boards the benchmarks run against
+ */
+final class Boards {
+
+    private Boards() {
+    }
+
+    /**
+     * Fill cells of a board at random
+     *
+     * @param board   the board to fill
+     * @param density the chance of each cell being filled
+     * @param seed    the seed, so every run fills the same cells
+     */
+    static void fill(BitBoard board, double density, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int y = 0; y < board.getRows(); y++) {
+            for (int x = 0; x < board.getCols(); x++) {
+                if (random.nextDouble() < density) {
+                    board.set(x, y, 1 + random.nextInt(GamePiece.PIECES));
+                }
+            }
+        }
+    }
+
+    /**
+     * Get every piece in every rotation
+     *
+     * @return the pieces
+     */
+    static GamePiece[] allPieces() {
+        GamePiece[] pieces = new GamePiece[GamePiece.PIECES * GamePiece.ROTATIONS];
+        for (int piece = 0; piece < GamePiece.PIECES; piece++) {
+            for (int rotation = 0; rotation < GamePiece.ROTATIONS; rotation++) {
+                pieces[piece * GamePiece.ROTATIONS + rotation] = GamePiece.createPiece(piece, rotation);
+            }
+        }
+        return pieces;
+    }
+}
@@ -0,0 +1,62 @@
+package uk.ac.soton.comp1206.benchmark;
+
+import uk.ac.soton.comp1206.game.GameCore;
+import uk.ac.soton.comp1206.game.GamePiece;
+import uk.ac.soton.comp1206.game.PlacementMask;
+
+/**
+ * A simple player used to drive simulated games: it plays the current piece, in whichever rotation fits first, at the
+ * first legal position reading from the top left. If the piece fits nowhere it swaps once, and if that fails too it
+ * gives up.
+ */
+final class GreedyPlayer {
+
+    private GreedyPlayer() {
+    }
+
+    /**
+     * Play a whole game
+     *
+     * @param core     the game to play, already started
+     * @param maxMoves the most pieces to play before stopping
+     * @return the number of pieces played
+     */
+    static int play(GameCore core, int maxMoves) {
+        int moves = 0;
+        while (moves < maxMoves && !core.isGameOver()) {
+            if (!move(core)) {
+                core.swapCurrentPiece();
+                if (!move(core)) {
+                    break;
+                }
+            }
+            moves++;
+        }
+        return moves;
+    }
+
+    /**
+     * Play the current piece at its first legal position in any rotation
+     *
+     * @param core the game
+     * @return true if the piece was played
+     */
+    private static boolean move(GameCore core) {
+        GamePiece piece = core.getCurrentPiece();
+        for (int rotation = 0; rotation < GamePiece.ROTATIONS; rotation++) {
+            PlacementMask mask = core.getBoard().legalPlacements(piece.rotate(rotation).getShape());
+            if (mask.isEmpty()) continue;
+
+            for (int y = 0; y < mask.getRows(); y++) {
+                long row = mask.getRowBits(y);
+                if (row != 0) {
+                    for (int i = 0; i < rotation; i++) {
+                        core.rotateCurrentPiece();
+                    }
+                    return core.playPiece(Long.numberOfTrailingZeros(row), y);
+                }
+            }
+        }
+        return false;
+    }
+}
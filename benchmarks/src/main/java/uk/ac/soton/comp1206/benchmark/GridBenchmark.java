@@ -0,0 +1,132 @@
+package uk.ac.soton.comp1206.benchmark;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.ac.soton.comp1206.game.BitBoard;
+import uk.ac.soton.comp1206.game.GamePiece;
+import uk.ac.soton.comp1206.game.Grid;
+import uk.ac.soton.comp1206.game.PlacementMask;
+
+/**
+ * Benchmarks checking and playing pieces on a grid, on a half filled board
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GridBenchmark {
+
+    /**
+     * Number of random positions tried in turn, a power of two
+     */
+    private static final int POSITIONS = 1024;
+
+    @Param({"5", "8", "16", "32", "64"})
+    public int size;
+
+    private Grid grid;
+    private Grid scratch;
+    private BitBoard empty;
+    private GamePiece[] pieces;
+    private int[] xs;
+    private int[] ys;
+    private int next;
+
+    /**
+     * Build the half filled grid and the positions to try
+     */
+    @Setup
+    public void setup() {
+        grid = Grid.headless(size, size);
+        Boards.fill(grid.getBoard(), 0.5, 1206);
+        scratch = Grid.headless(size, size);
+        empty = new BitBoard(size, size);
+        pieces = Boards.allPieces();
+
+        SplittableRandom random = new SplittableRandom(1206);
+        xs = new int[POSITIONS];
+        ys = new int[POSITIONS];
+        for (int i = 0; i < POSITIONS; i++) {
+            xs[i] = random.nextInt(size);
+            ys[i] = random.nextInt(size);
+        }
+    }
+
+    /**
+     * Check one piece at one position
+     *
+     * @return whether it can be played
+     */
+    @Benchmark
+    public boolean canPlayPiece() {
+        int i = next++ & (POSITIONS - 1);
+        return grid.canPlayPiece(pieces[i % pieces.length], xs[i], ys[i]);
+    }
+
+    /**
+     * Check one piece at every position on the board, as the hover and hint code does
+     *
+     * @return the number of legal positions
+     */
+    @Benchmark
+    public int canPlayPieceEverywhere() {
+        GamePiece piece = pieces[next++ % pieces.length];
+        int legal = 0;
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                if (grid.canPlayPiece(piece, x, y)) {
+                    legal++;
+                }
+            }
+        }
+        return legal;
+    }
+
+    /**
+     * Find every legal position of one piece at once. A cell is toggled first so the cached mask can not be reused.
+     *
+     * @return the legal positions
+     */
+    @Benchmark
+    public PlacementMask legalPlacements() {
+        BitBoard board = grid.getBoard();
+        board.set(0, 0, board.isFilled(0, 0) ? 0 : 1);
+        return grid.legalPlacements(pieces[next++ % pieces.length]);
+    }
+
+    /**
+     * Reset a grid, then play a piece in the middle of it
+     *
+     * @return the grid
+     */
+    @Benchmark
+    public Grid playPiece() {
+        scratch.getBoard().copyFrom(empty);
+        scratch.playPiece(pieces[next++ % pieces.length], size / 2, size / 2);
+        return scratch;
+    }
+
+    /**
+     * Reset a grid without playing, the baseline for playPiece
+     *
+     * @return the grid
+     */
+    @Benchmark
+    public Grid resetOnly() {
+        scratch.getBoard().copyFrom(empty);
+        return scratch;
+    }
+}
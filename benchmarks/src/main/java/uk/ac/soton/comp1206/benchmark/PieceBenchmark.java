@@ -0,0 +1,71 @@
+package uk.ac.soton.comp1206.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.ac.soton.comp1206.game.GamePiece;
+
+/**
+ * Benchmarks creating and rotating pieces
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PieceBenchmark {
+
+    private int next;
+    private GamePiece piece = GamePiece.createPiece(0);
+
+    /**
+     * Create each piece in turn
+     *
+     * @return the piece
+     */
+    @Benchmark
+    public GamePiece createPiece() {
+        return GamePiece.createPiece(next++ % GamePiece.PIECES);
+    }
+
+    /**
+     * Create each piece in turn in a given rotation
+     *
+     * @return the piece
+     */
+    @Benchmark
+    public GamePiece createRotatedPiece() {
+        int i = next++;
+        return GamePiece.createPiece(i % GamePiece.PIECES, i);
+    }
+
+    /**
+     * Rotate a piece clockwise
+     *
+     * @return the rotated piece
+     */
+    @Benchmark
+    public GamePiece rotate() {
+        piece = piece.rotate();
+        return piece;
+    }
+
+    /**
+     * Rotate a piece counter-clockwise
+     *
+     * @return the rotated piece
+     */
+    @Benchmark
+    public GamePiece rotateCounterClockwise() {
+        piece = piece.rotateCounterClockwise();
+        return piece;
+    }
+}
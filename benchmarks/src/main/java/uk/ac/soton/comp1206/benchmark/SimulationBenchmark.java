@@ -0,0 +1,51 @@
+package uk.ac.soton.comp1206.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.ac.soton.comp1206.game.GameCore;
+import uk.ac.soton.comp1206.game.PieceSequence;
+
+/**
+ * Benchmarks playing whole games headless with a greedy player. Each game uses the next seed, so every run plays the
+ * same sequence of games.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SimulationBenchmark {
+
+    /**
+     * The most pieces played in one game, so the larger boards finish
+     */
+    private static final int MAX_MOVES = 2000;
+
+    @Param({"5", "8", "16", "32", "64"})
+    public int size;
+
+    private long seed;
+
+    /**
+     * Play one whole game
+     *
+     * @return the final score
+     */
+    @Benchmark
+    public int playGame() {
+        GameCore core = new GameCore(size, size, new PieceSequence(seed++));
+        core.start();
+        GreedyPlayer.play(core, MAX_MOVES);
+        return core.getScore();
+    }
+}
@@ -1,4 +1,7 @@
 package uk.ac.soton.comp1206;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import javafx.scene.image.Image;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -10,9 +13,65 @@ import uk.ac.soton.comp1206.scene.SettingsScene;
 public class Multimedia {
 
     private static final Logger logger = LogManager.getLogger(Multimedia.class);
-    public static MediaPlayer audioPlayer;
     public static MediaPlayer musicPlayer;
-    private static boolean audioEnabled = true;
+    private static volatile boolean audioEnabled = true;
+
+    /**
+     * The sound effects, decoded once by loadSounds
+     */
+    private static final SoundEngine sounds = new SoundEngine(SoundEngine.DEFAULT_VOICES);
+
+    /**
+     * Priority and most copies playing at once for sounds not loaded by loadSounds
+     */
+    private static final int DEFAULT_PRIORITY = 1;
+    private static final int DEFAULT_POLYPHONY = 1;
+
+    /**
+     * Method used to decode every sound effect up front, so playing one later does not touch the file
+     * Higher priority sounds take the voice of lower ones when too many are playing
+     * @param executor: runs the decoding
+     * @return a future for each sound, completing when it has been decoded
+     */
+    public static List<CompletableFuture<Void>> loadSounds(Executor executor) {
+        // file, priority, most copies playing at once
+        return List.of(
+            loadSound(executor, "intro.mp3", 9, 1),
+            loadSound(executor, "level.wav", 8, 1),
+            loadSound(executor, "explode.wav", 7, 1),
+            loadSound(executor, "lifelose.wav", 7, 1),
+            loadSound(executor, "lifegain.wav", 6, 1),
+            loadSound(executor, "clear.wav", 5, 2),
+            loadSound(executor, "message.wav", 4, 2),
+            loadSound(executor, "fail.wav", 3, 1),
+            loadSound(executor, "place.wav", 3, 2),
+            loadSound(executor, "transition.wav", 2, 1),
+            loadSound(executor, "pling.wav", 1, 1),
+            loadSound(executor, "rotate.wav", 1, 1)
+        );
+    }
+
+    /**
+     * Method used to decode a single sound effect in the background
+     * @param executor: runs the decoding
+     * @param file: audio file name
+     * @param priority: priority of the sound
+     * @param polyphony: most copies of the sound playing at once
+     * @return completes when the sound has been decoded
+     */
+    private static CompletableFuture<Void> loadSound(Executor executor, String file, int priority, int polyphony) {
+        return CompletableFuture.runAsync(() -> {
+            if (!audioEnabled) return;
+
+            try {
+                sounds.register(file, priority, polyphony);
+            } catch (Exception e) {
+                audioEnabled = false;
+                e.printStackTrace();
+                logger.error("Unable to load sound " + file + ", disabling audio");
+            }
+        }, executor);
+    }
 
     /**
      * Method used to play background Music
@@ -21,11 +80,13 @@ public class Multimedia {
     public static  void playMusic(String file) {
         if (!audioEnabled) return;
 
-        String toPlay = Multimedia.class.getResource("/music/" + file).toExternalForm();
-        logger.info("Playing music: " + toPlay);
+        logger.info("Playing music: " + file);
 
         try {
-            musicPlayer = new MediaPlayer(new Media(toPlay));
+            Media media = ResourceRegistry.getMusic(file);
+            if (media == null) return;
+
+            musicPlayer = new MediaPlayer(media);
             musicPlayer.setCycleCount(MediaPlayer.INDEFINITE);
             musicPlayer.setVolume(SettingsScene.musicVolume / 100);
             musicPlayer.play();
@@ -38,18 +99,20 @@ public class Multimedia {
 
     /**
      * Method used to play audio sounds for events
+     * The sound is played from its decoded clip if it has a free voice, otherwise it is dropped
      * @param file: audio file name
      */
     public static  void playAudio(String file) {
 
         if (!audioEnabled) return;
 
-        String toPlay = Multimedia.class.getResource("/sounds/" + file).toExternalForm();
-        logger.info("Playing audio: " + toPlay);
         try {
-            audioPlayer = new MediaPlayer(new Media(toPlay));
-            audioPlayer.setVolume(SettingsScene.audioVolume / 100);
-            audioPlayer.play();
+            if (!sounds.isRegistered(file)) {
+                sounds.register(file, DEFAULT_PRIORITY, DEFAULT_POLYPHONY);
+            }
+            if (sounds.play(file, SettingsScene.audioVolume / 100)) {
+                logger.debug("Playing audio: " + file);
+            }
         } catch (Exception e) {
             audioEnabled = false;
             e.printStackTrace();
@@ -73,7 +136,7 @@ public class Multimedia {
      */
     public static Image getImage(String file) {
         logger.info("Image " + file + " selected");
-        return new Image(Multimedia.class.getResource("/images/" + file).toExternalForm());
+        return ResourceRegistry.getImage(file);
     }
 
 
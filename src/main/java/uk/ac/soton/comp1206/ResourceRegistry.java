@@ -0,0 +1,196 @@
+package uk.ac.soton.comp1206;
+
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import javafx.beans.property.ReadOnlyDoubleWrapper;
+import javafx.scene.image.Image;
+import javafx.scene.media.Media;
+import javafx.scene.text.Font;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * The ResourceRegistry loads the fonts, images, music and sound effects the game needs, all at once on a background
+ * pool, while the splash screen is showing.
+ * <p>
+ * Scenes get their images and music from the registry. Anything asked for before it has been preloaded is loaded
+ * there and then and kept, and anything being loaded by the pool at that moment is waited for rather than loaded
+ * twice. Progress is published on the JavaFX thread as a fraction of the resources loaded.
+ */
+public class ResourceRegistry {
+
+    private static final Logger logger = LogManager.getLogger(ResourceRegistry.class);
+
+    /**
+     * The fonts used by the stylesheet
+     */
+    private static final String[] FONTS = {
+        "Orbitron-Regular.ttf",
+        "Orbitron-Bold.ttf",
+        "Orbitron-ExtraBold.ttf"
+    };
+
+    /**
+     * The theme backgrounds, splash, title and instructions images
+     */
+    private static final String[] IMAGES = {
+        "1.jpg", "2.jpg", "3.jpg", "4.jpg", "5.jpg", "6.jpg",
+        "ECSGames.png", "TetrECS.png", "Instructions.png"
+    };
+
+    /**
+     * The background music
+     */
+    private static final String[] MUSIC = {
+        "menu.mp3",
+        "end.wav"
+    };
+
+    private static final Map<String, Image> images = new ConcurrentHashMap<>();
+    private static final Map<String, Media> music = new ConcurrentHashMap<>();
+
+    private static final ReadOnlyDoubleWrapper progress = new ReadOnlyDoubleWrapper(0);
+
+    /**
+     * Completes when everything has been preloaded, null until preload is called
+     */
+    private static CompletableFuture<Void> loaded;
+
+    /**
+     * Completes when the sound effects have been preloaded
+     */
+    private static CompletableFuture<Void> soundsLoaded;
+
+    /**
+     * Start loading everything in the background, if it has not been started already
+     *
+     * @return completes when everything has been loaded
+     */
+    public static synchronized CompletableFuture<Void> preload() {
+        if (loaded != null) {
+            return loaded;
+        }
+        long start = System.nanoTime();
+        int threads = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "resource-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        for (String font : FONTS) {
+            tasks.add(CompletableFuture.runAsync(() -> loadFont(font), pool));
+        }
+        for (String image : IMAGES) {
+            tasks.add(CompletableFuture.runAsync(() -> getImage(image), pool));
+        }
+        for (String file : MUSIC) {
+            tasks.add(CompletableFuture.runAsync(() -> getMusic(file), pool));
+        }
+        List<CompletableFuture<Void>> sounds = Multimedia.loadSounds(pool);
+        tasks.addAll(sounds);
+        soundsLoaded = CompletableFuture.allOf(sounds.toArray(new CompletableFuture[0]));
+
+        int total = tasks.size();
+        AtomicInteger done = new AtomicInteger();
+        for (CompletableFuture<Void> task : tasks) {
+            task.whenComplete((result, error) -> {
+                double fraction = (double) done.incrementAndGet() / total;
+                Platform.runLater(() -> progress.set(fraction));
+            });
+        }
+
+        loaded = CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0]))
+            .whenComplete((result, error) -> {
+                pool.shutdown();
+                if (error != null) {
+                    logger.error("Some resources failed to preload: " + error.getMessage());
+                } else {
+                    logger.info("Preloaded " + total + " resources in " + (System.nanoTime() - start) / 1_000_000
+                        + "ms on " + threads + " threads");
+                }
+            });
+        return loaded;
+    }
+
+    /**
+     * Get a future which completes when the sound effects have been preloaded, starting the preload if needed
+     *
+     * @return completes when the sounds are ready
+     */
+    public static synchronized CompletableFuture<Void> whenSoundsLoaded() {
+        preload();
+        return soundsLoaded;
+    }
+
+    /**
+     * Get the fraction of resources loaded so far, updated on the JavaFX thread
+     *
+     * @return progress from 0 to 1
+     */
+    public static ReadOnlyDoubleProperty progressProperty() {
+        return progress.getReadOnlyProperty();
+    }
+
+    /**
+     * Get an image from the images folder, loading it now if it has not been preloaded
+     *
+     * @param file the image name
+     * @return the image
+     * @throws IllegalArgumentException if there is no such image
+     */
+    public static Image getImage(String file) {
+        return images.computeIfAbsent(file, name -> {
+            URL url = ResourceRegistry.class.getResource("/images/" + name);
+            if (url == null) {
+                throw new IllegalArgumentException("No such image: " + name);
+            }
+            logger.debug("Loading image " + name);
+            return new Image(url.toExternalForm());
+        });
+    }
+
+    /**
+     * Get a music file from the music folder, loading it now if it has not been preloaded
+     *
+     * @param file the music file name
+     * @return the media, or null if there is no such file
+     */
+    public static Media getMusic(String file) {
+        return music.computeIfAbsent(file, name -> {
+            URL url = ResourceRegistry.class.getResource("/music/" + name);
+            if (url == null) {
+                logger.error("No such music: " + name);
+                return null;
+            }
+            logger.debug("Loading music " + name);
+            return new Media(url.toExternalForm());
+        });
+    }
+
+    /**
+     * Load a font from the style folder
+     *
+     * @param file the font file name
+     */
+    private static void loadFont(String file) {
+        try (InputStream in = ResourceRegistry.class.getResourceAsStream("/style/" + file)) {
+            if (in == null || Font.loadFont(in, 32) == null) {
+                logger.error("Unable to load font " + file);
+            }
+        } catch (Exception e) {
+            logger.error("Unable to load font " + file + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package uk.ac.soton.comp1206;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.HashMap;
+import java.util.Map;
+import javafx.scene.media.AudioClip;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * The SoundEngine plays short sound effects from clips decoded once, rather than a new MediaPlayer for every sound.
+ * <p>
+ * Every sound is registered up front with a priority and the most copies of it which may play at once. Playing a
+ * sound takes a voice from a fixed pool. A sound already playing as many times as it may is not started again, and
+ * when the pool is full a new sound takes the voice of the lowest priority sound playing, if that is lower than its
+ * own. Otherwise the new sound is dropped, so holding down rotate can never pile up more than a few clips.
+ * <p>
+ * A clip gives no word when it finishes, so a voice is counted as busy for the length of its sound, read from the
+ * header of WAV files. The engine can be used from any thread.
+ */
+public class SoundEngine {
+
+    private static final Logger logger = LogManager.getLogger(SoundEngine.class);
+
+    /**
+     * The number of voices by default
+     */
+    public static final int DEFAULT_VOICES = 8;
+
+    /**
+     * How long a sound is assumed to last when its length cannot be read from the file
+     */
+    private static final long UNKNOWN_LENGTH_NANOS = 2_000_000_000L;
+
+    /**
+     * The registered sounds by file name
+     */
+    private final Map<String, Sound> sounds = new HashMap<>();
+
+    /**
+     * The voice pool: the sound in each busy voice and when it will be free, in slots 0 to busy - 1
+     */
+    private final Sound[] voiceSounds;
+    private final long[] voiceEnds;
+    private int busy;
+
+    private long played;
+    private long dropped;
+    private long stolen;
+
+    /**
+     * Create an engine with a voice pool
+     *
+     * @param voices the most sounds which may play at once
+     */
+    public SoundEngine(int voices) {
+        if (voices < 1) {
+            throw new IllegalArgumentException("Need at least one voice: " + voices);
+        }
+        voiceSounds = new Sound[voices];
+        voiceEnds = new long[voices];
+    }
+
+    /**
+     * Decode a sound from the sounds folder and register it
+     *
+     * @param file      the file name in /sounds
+     * @param priority  the priority, higher sounds take voices from lower ones
+     * @param polyphony the most copies of this sound which may play at once
+     * @throws IllegalArgumentException if there is no such file
+     * @throws javafx.scene.media.MediaException if the file cannot be decoded
+     */
+    public void register(String file, int priority, int polyphony) {
+        URL url = SoundEngine.class.getResource("/sounds/" + file);
+        if (url == null) {
+            throw new IllegalArgumentException("No such sound: " + file);
+        }
+        Sound sound = new Sound(file, new AudioClip(url.toExternalForm()), priority, Math.max(1, polyphony),
+            readLength(url));
+        synchronized (this) {
+            sounds.put(file, sound);
+        }
+        logger.debug("Loaded sound {} ({}ms)", file, sound.lengthNanos / 1_000_000);
+    }
+
+    /**
+     * Check whether a sound has been registered
+     *
+     * @param file the file name
+     * @return true if it can be played
+     */
+    public synchronized boolean isRegistered(String file) {
+        return sounds.containsKey(file);
+    }
+
+    /**
+     * Play a sound if it has a voice
+     *
+     * @param file   the file name the sound was registered with
+     * @param volume the volume, from 0 to 1
+     * @return true if the sound was started
+     * @throws IllegalArgumentException if the sound has not been registered
+     */
+    public boolean play(String file, double volume) {
+        Sound stop = null;
+        Sound sound;
+        synchronized (this) {
+            sound = sounds.get(file);
+            if (sound == null) {
+                throw new IllegalArgumentException("Sound not registered: " + file);
+            }
+            long now = System.nanoTime();
+            release(now);
+
+            if (sound.playing >= sound.polyphony) {
+                dropped++;
+                return false;
+            }
+            if (busy == voiceSounds.length) {
+                int victim = lowestPriority();
+                if (voiceSounds[victim].priority >= sound.priority) {
+                    dropped++;
+                    return false;
+                }
+                //A clip can only be stopped as a whole, so every copy of the victim sound gives up its voice
+                stop = voiceSounds[victim];
+                for (int i = busy - 1; i >= 0; i--) {
+                    if (voiceSounds[i] == stop) {
+                        free(i);
+                    }
+                }
+                stolen++;
+            }
+            voiceSounds[busy] = sound;
+            voiceEnds[busy] = now + sound.lengthNanos;
+            busy++;
+            sound.playing++;
+            played++;
+        }
+        if (stop != null) {
+            stop.clip.stop();
+        }
+        sound.clip.play(volume);
+        return true;
+    }
+
+    /**
+     * Stop every sound and free all the voices
+     */
+    public void stopAll() {
+        Sound[] playing;
+        synchronized (this) {
+            playing = sounds.values().toArray(new Sound[0]);
+            while (busy > 0) {
+                free(busy - 1);
+            }
+        }
+        for (Sound sound : playing) {
+            sound.clip.stop();
+        }
+    }
+
+    /**
+     * Free the voices whose sounds have finished
+     *
+     * @param now the time now
+     */
+    private void release(long now) {
+        for (int i = busy - 1; i >= 0; i--) {
+            if (voiceEnds[i] <= now) {
+                free(i);
+            }
+        }
+    }
+
+    /**
+     * Free a voice, moving the last busy voice into its slot
+     *
+     * @param slot the voice to free
+     */
+    private void free(int slot) {
+        voiceSounds[slot].playing--;
+        int last = --busy;
+        voiceSounds[slot] = voiceSounds[last];
+        voiceEnds[slot] = voiceEnds[last];
+        voiceSounds[last] = null;
+    }
+
+    /**
+     * Find the busy voice with the lowest priority, the one finishing soonest if there is a tie
+     *
+     * @return the slot
+     */
+    private int lowestPriority() {
+        int lowest = 0;
+        for (int i = 1; i < busy; i++) {
+            int priority = voiceSounds[i].priority;
+            int best = voiceSounds[lowest].priority;
+            if (priority < best || (priority == best && voiceEnds[i] < voiceEnds[lowest])) {
+                lowest = i;
+            }
+        }
+        return lowest;
+    }
+
+    /**
+     * Read the length of a WAV file from its header
+     *
+     * @param url the file
+     * @return the length in nanoseconds, or UNKNOWN_LENGTH_NANOS if it is not a WAV file or cannot be read
+     */
+    private static long readLength(URL url) {
+        try (InputStream in = url.openStream()) {
+            ByteBuffer header = ByteBuffer.wrap(in.readNBytes(12)).order(ByteOrder.LITTLE_ENDIAN);
+            if (header.limit() < 12 || header.getInt(0) != 0x46464952 || header.getInt(8) != 0x45564157) {
+                return UNKNOWN_LENGTH_NANOS;
+            }
+            long byteRate = 0;
+            //Walk the chunks until the data, taking the byte rate from the format chunk on the way
+            while (true) {
+                ByteBuffer chunk = ByteBuffer.wrap(in.readNBytes(8)).order(ByteOrder.LITTLE_ENDIAN);
+                if (chunk.limit() < 8) {
+                    return UNKNOWN_LENGTH_NANOS;
+                }
+                int id = chunk.getInt(0);
+                long size = chunk.getInt(4) & 0xFFFFFFFFL;
+                if (id == 0x20746D66) {
+                    ByteBuffer format = ByteBuffer.wrap(in.readNBytes((int) size)).order(ByteOrder.LITTLE_ENDIAN);
+                    byteRate = format.limit() >= 12 ? format.getInt(8) & 0xFFFFFFFFL : 0;
+                } else if (id == 0x61746164) {
+                    return byteRate == 0 ? UNKNOWN_LENGTH_NANOS : size * 1_000_000_000L / byteRate;
+                } else {
+                    in.skipNBytes(size + (size & 1));
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Unable to read the length of {}", url);
+            return UNKNOWN_LENGTH_NANOS;
+        }
+    }
+
+    /**
+     * Get the number of sounds started
+     *
+     * @return sounds played
+     */
+    public synchronized long getPlayed() {
+        return played;
+    }
+
+    /**
+     * Get the number of sounds not started because they had no voice
+     *
+     * @return sounds dropped
+     */
+    public synchronized long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * Get the number of times a sound was stopped to make room for a higher priority one
+     *
+     * @return voices stolen
+     */
+    public synchronized long getStolen() {
+        return stolen;
+    }
+
+    /**
+     * Get the number of voices playing right now
+     *
+     * @return busy voices
+     */
+    public synchronized int getBusyVoices() {
+        release(System.nanoTime());
+        return busy;
+    }
+
+    /**
+     * A decoded sound and how it may be played
+     */
+    private static class Sound {
+
+        private final String file;
+        private final AudioClip clip;
+        private final int priority;
+        private final int polyphony;
+        private final long lengthNanos;
+
+        /**
+         * The number of voices playing this sound
+         */
+        private int playing;
+
+        /**
+         * Create a sound
+         *
+         * @param file        the file name
+         * @param clip        the decoded clip
+         * @param priority    the priority
+         * @param polyphony   the most copies which may play at once
+         * @param lengthNanos how long it plays for
+         */
+        private Sound(String file, AudioClip clip, int priority, int polyphony, long lengthNanos) {
+            this.file = file;
+            this.clip = clip;
+            this.priority = priority;
+            this.polyphony = polyphony;
+            this.lengthNanos = lengthNanos;
+        }
+
+        @Override
+        public String toString() {
+            return file;
+        }
+    }
+}
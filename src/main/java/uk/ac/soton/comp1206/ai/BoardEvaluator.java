@@ -0,0 +1,90 @@
+package uk.ac.soton.comp1206.ai;
+
+import uk.ac.soton.comp1206.game.BitBoard;
+import uk.ac.soton.comp1206.game.GameCore;
+
+/**
+ * The BoardEvaluator scores how good a board is to carry on playing from, for searches and bots.
+ * <p>
+ * A good board has lots of space, has its filled cells gathered into a few nearly complete lines, and has no holes:
+ * empty cells boxed in on every side, which only a single dot can ever fill.
+ */
+public final class BoardEvaluator {
+
+    /**
+     * Worth of each empty cell
+     */
+    public static final double EMPTY_WEIGHT = 1.0;
+
+    /**
+     * Worth of filled cells gathered into the same line, applied to the square of each line's fill fraction
+     */
+    public static final double LINE_WEIGHT = 4.0;
+
+    /**
+     * Cost of each hole
+     */
+    public static final double HOLE_WEIGHT = 6.0;
+
+    /**
+     * Cost of a board where the piece to play fits nowhere
+     */
+    public static final double STUCK_PENALTY = 500.0;
+
+    private BoardEvaluator() {
+    }
+
+    /**
+     * Score a board
+     *
+     * @param board the board
+     * @return the score, higher is better
+     */
+    public static double evaluate(BitBoard board) {
+        int cols = board.getCols();
+        int rows = board.getRows();
+        long full = board.getFullRow();
+
+        int filled = 0;
+        double lines = 0;
+        int holes = 0;
+        for (int y = 0; y < rows; y++) {
+            long bits = board.getRowBits(y);
+            int count = Long.bitCount(bits);
+            filled += count;
+            lines += (double) count * count / ((double) cols * cols);
+
+            //A hole is empty with a filled cell or the edge of the board on every side
+            long empty = ~bits & full;
+            long left = ((bits << 1) | 1L) & full;
+            long right = ((bits >>> 1) | (1L << (cols - 1))) & full;
+            long up = y == 0 ? full : board.getRowBits(y - 1);
+            long down = y == rows - 1 ? full : board.getRowBits(y + 1);
+            holes += Long.bitCount(empty & left & right & up & down);
+        }
+        for (int x = 0; x < cols; x++) {
+            int count = board.getColumnCount(x);
+            lines += (double) count * count / ((double) rows * rows);
+        }
+
+        return EMPTY_WEIGHT * (cols * rows - filled) + LINE_WEIGHT * lines - HOLE_WEIGHT * holes;
+    }
+
+    /**
+     * Clear any lines completed by the last piece played on a board and score them by the game rules
+     *
+     * @param board      the board, changed in place
+     * @param multiplier the multiplier before the piece was played
+     * @return the score gained, 0 if no lines were completed
+     */
+    public static int clearLines(BitBoard board, int multiplier) {
+        long rows = board.fullRows(board.getLastRows());
+        long cols = board.fullCols(board.getLastCols());
+        if (rows == 0 && cols == 0) {
+            return 0;
+        }
+        int lines = Long.bitCount(rows) + Long.bitCount(cols);
+        int blocks = board.clearLines(rows, cols);
+        return GameCore.scoreFor(lines, blocks, multiplier);
+    }
+}
@@ -0,0 +1,21 @@
+package uk.ac.soton.comp1206.ai;
+
+import java.util.List;
+import uk.ac.soton.comp1206.game.GamePiece;
+import uk.ac.soton.comp1206.game.GameSnapshot;
+
+/**
+ * A BotStrategy chooses moves for a computer player. Each game gets its own strategy, so a strategy may keep state
+ * between moves but is only ever used by one thread at a time.
+ */
+public interface BotStrategy {
+
+    /**
+     * Choose the move to make
+     *
+     * @param snapshot the state of the game
+     * @param upcoming the pieces which will be dealt after the following piece, if known
+     * @return the move, or null to make no move and wait for the timer
+     */
+    Hint choose(GameSnapshot snapshot, List<GamePiece> upcoming);
+}
@@ -0,0 +1,126 @@
+package uk.ac.soton.comp1206.ai;
+
+import uk.ac.soton.comp1206.game.GamePiece;
+
+/**
+ * A Hint is the best move found by a HintEngine search: which piece to play, in which rotation and where.
+ */
+public class Hint {
+
+    private final boolean swap;
+    private final GamePiece piece;
+    private final int x;
+    private final int y;
+    private final double value;
+    private final int depth;
+    private final boolean complete;
+    private final long positions;
+
+    /**
+     * Create a hint
+     *
+     * @param swap      whether to swap the current and following pieces first
+     * @param piece     the piece to play, in the rotation to play it
+     * @param x         column to centre the piece on
+     * @param y         row to centre the piece on
+     * @param value     how good the search rated the move
+     * @param depth     how many pieces ahead the search looked
+     * @param complete  whether every move was searched to that depth within the time budget
+     * @param positions the number of positions the search looked at
+     */
+    public Hint(boolean swap, GamePiece piece, int x, int y, double value, int depth, boolean complete,
+        long positions) {
+        this.swap = swap;
+        this.piece = piece;
+        this.x = x;
+        this.y = y;
+        this.value = value;
+        this.depth = depth;
+        this.complete = complete;
+        this.positions = positions;
+    }
+
+    /**
+     * Check whether the pieces should be swapped before playing
+     *
+     * @return true to swap first
+     */
+    public boolean isSwap() {
+        return swap;
+    }
+
+    /**
+     * Get the piece to play, in the rotation to play it
+     *
+     * @return the piece
+     */
+    public GamePiece getPiece() {
+        return piece;
+    }
+
+    /**
+     * Get the column to centre the piece on
+     *
+     * @return column
+     */
+    public int getX() {
+        return x;
+    }
+
+    /**
+     * Get the row to centre the piece on
+     *
+     * @return row
+     */
+    public int getY() {
+        return y;
+    }
+
+    /**
+     * Get how good the search rated the move
+     *
+     * @return the value
+     */
+    public double getValue() {
+        return value;
+    }
+
+    /**
+     * Get how many pieces ahead the search looked
+     *
+     * @return depth
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Check whether every move was searched to the full depth within the time budget
+     *
+     * @return true if the search finished
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Get the number of positions the search looked at
+     *
+     * @return positions
+     */
+    public long getPositions() {
+        return positions;
+    }
+
+    /**
+     * Describe the hint
+     *
+     * @return description
+     */
+    @Override
+    public String toString() {
+        return (swap ? "swap, then " : "") + "play " + piece + " rotation " + piece.getRotation() + " at " + x + ","
+            + y + " (value " + String.format("%.1f", value) + ", depth " + depth + (complete ? "" : ", partial")
+            + ")";
+    }
+}
@@ -0,0 +1,162 @@
+package uk.ac.soton.comp1206.ai;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import uk.ac.soton.comp1206.game.GamePiece;
+import uk.ac.soton.comp1206.game.GameSnapshot;
+
+/**
+ * The HintEngine suggests the best move for the player, searching a few pieces ahead in the background.
+ * <p>
+ * Searches run on a ForkJoinPool shared by every engine, leaving one core free for the UI, and always finish within
+ * the time budget. The values an engine's searches work out are kept in a transposition table, which can be shared
+ * between engines. See HintSearch for how moves are rated.
+ */
+public class HintEngine {
+
+    /**
+     * The default longest a search can take, in milliseconds
+     */
+    public static final long DEFAULT_BUDGET = 250;
+
+    /**
+     * The default number of pieces to look ahead
+     */
+    public static final int DEFAULT_DEPTH = 3;
+
+    /**
+     * The most pieces a search can look ahead
+     */
+    public static final int MAX_DEPTH = 8;
+
+    /**
+     * The default number of values the transposition table holds
+     */
+    public static final int DEFAULT_TABLE_SIZE = 1 << 16;
+
+    /**
+     * The pool shared by every engine
+     */
+    private static final ForkJoinPool POOL =
+        new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+
+    /**
+     * The pool searches run on
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Values worked out by earlier searches
+     */
+    private final TranspositionTable table;
+
+    /**
+     * The longest a search can take, in milliseconds
+     */
+    private long budget = DEFAULT_BUDGET;
+
+    /**
+     * The number of pieces to look ahead
+     */
+    private int depth = DEFAULT_DEPTH;
+
+    /**
+     * Create a hint engine on the shared pool
+     */
+    public HintEngine() {
+        this(new TranspositionTable(DEFAULT_TABLE_SIZE));
+    }
+
+    /**
+     * Create a hint engine on the shared pool, using the given table
+     *
+     * @param table values worked out by earlier searches, which may be shared with other engines
+     */
+    public HintEngine(TranspositionTable table) {
+        this(POOL, table);
+    }
+
+    /**
+     * Create a hint engine on the given pool
+     *
+     * @param pool  the pool searches run on
+     * @param table values worked out by earlier searches, which may be shared with other engines
+     */
+    public HintEngine(ForkJoinPool pool, TranspositionTable table) {
+        this.pool = pool;
+        this.table = table;
+    }
+
+    /**
+     * Start searching for the best move from a game state
+     *
+     * @param snapshot the game state
+     * @param upcoming the pieces which will be dealt after the following piece, if known, to look further ahead
+     * @return the running search
+     */
+    public HintSearch search(GameSnapshot snapshot, List<GamePiece> upcoming) {
+        HintSearch search = new HintSearch(snapshot, upcoming, depth, budget, table);
+        search.start(pool);
+        return search;
+    }
+
+    /**
+     * Search for the best move from a game state entirely on the calling thread, for callers which are already running
+     * many searches in parallel
+     *
+     * @param snapshot the game state
+     * @param upcoming the pieces which will be dealt after the following piece, if known, to look further ahead
+     * @return the best move, or null if no piece can be played anywhere
+     */
+    public Hint searchNow(GameSnapshot snapshot, List<GamePiece> upcoming) {
+        return new HintSearch(snapshot, upcoming, depth, budget, table).run(false);
+    }
+
+    /**
+     * Get the values worked out by earlier searches
+     *
+     * @return the transposition table
+     */
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    /**
+     * Get the longest a search can take
+     *
+     * @return the budget in milliseconds
+     */
+    public long getBudget() {
+        return budget;
+    }
+
+    /**
+     * Set the longest a search can take
+     *
+     * @param budget the budget in milliseconds, or 0 to always search to full depth
+     */
+    public void setBudget(long budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * Get the number of pieces searches look ahead
+     *
+     * @return depth
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Set the number of pieces searches look ahead
+     *
+     * @param depth depth, from 1 to MAX_DEPTH
+     */
+    public void setDepth(int depth) {
+        if (depth < 1 || depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Depth must be from 1 to " + MAX_DEPTH + ": " + depth);
+        }
+        this.depth = depth;
+    }
+}
@@ -0,0 +1,432 @@
+package uk.ac.soton.comp1206.ai;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import uk.ac.soton.comp1206.game.BitBoard;
+import uk.ac.soton.comp1206.game.GamePiece;
+import uk.ac.soton.comp1206.game.GameSnapshot;
+
+/**
+ * A HintSearch looks for the best move from one game state, on a ForkJoinPool.
+ * <p>
+ * Every rotation of the current piece at every legal position is a root move, as is every rotation of the following
+ * piece after a swap. The root moves are searched in parallel, each looking a number of pieces ahead: the pieces
+ * following it are tried in every rotation at every legal position, scoring cleared lines by the game rules, and the
+ * boards at the end are rated by the BoardEvaluator.
+ * <p>
+ * Once every position of a piece in one rotation has been searched from a board, the best value is kept in a
+ * transposition table, so the same board reached by playing pieces in another order, by another thread or in a later
+ * search is not searched again.
+ * <p>
+ * The search deepens one piece at a time until it reaches its depth or runs out of time, and returns the best move of
+ * the deepest search which finished. It can be cancelled at any time, after which its result never completes.
+ */
+public class HintSearch {
+
+    private static final Logger logger = LogManager.getLogger(HintSearch.class);
+
+    /**
+     * The result of the search
+     */
+    private final CompletableFuture<Hint> result = new CompletableFuture<>();
+
+    /**
+     * The board to search from
+     */
+    private final BitBoard root;
+
+    /**
+     * The multiplier to search from
+     */
+    private final int multiplier;
+
+    /**
+     * The order pieces are played in without and with a swap first
+     */
+    private final GamePiece[] order;
+    private final GamePiece[] swapOrder;
+
+    /**
+     * The deepest the search will go
+     */
+    private final int maxDepth;
+
+    /**
+     * Whether the search stops at a deadline; without one it always searches to its full depth, so the move it picks
+     * never depends on how fast the machine is
+     */
+    private final boolean timed;
+
+    /**
+     * When the search must stop, in System.nanoTime
+     */
+    private final long deadline;
+
+    /**
+     * Set when the search is cancelled or out of time
+     */
+    private volatile boolean stopped;
+
+    /**
+     * Set when the search is cancelled
+     */
+    private volatile boolean cancelled;
+
+    /**
+     * The number of positions looked at
+     */
+    private final LongAdder positions = new LongAdder();
+
+    /**
+     * Values already worked out, shared with other searches
+     */
+    private final TranspositionTable table;
+
+    /**
+     * Create a search, which does nothing until started
+     *
+     * @param snapshot the game state to search from
+     * @param upcoming the pieces which will be dealt after the following piece, if known
+     * @param maxDepth the most pieces to look ahead
+     * @param budget   the longest the search can take, in milliseconds, or 0 for no limit
+     * @param table    values already worked out, shared with other searches
+     */
+    HintSearch(GameSnapshot snapshot, List<GamePiece> upcoming, int maxDepth, long budget, TranspositionTable table) {
+        this.table = table;
+        this.root = snapshot.toBoard();
+        this.multiplier = snapshot.getMultiplier();
+        this.maxDepth = maxDepth;
+        this.timed = budget > 0;
+        this.deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budget);
+
+        GamePiece current = snapshot.getCurrentPiece();
+        GamePiece following = snapshot.getFollowingPiece();
+        this.order = sequence(current, following, upcoming);
+        this.swapOrder = following == null ? null : sequence(following, current, upcoming);
+    }
+
+    /**
+     * Build the order pieces would be played in
+     *
+     * @param first    the piece played first
+     * @param second   the piece played second
+     * @param upcoming the pieces after those
+     * @return the pieces, stopping at the first unknown one
+     */
+    private static GamePiece[] sequence(GamePiece first, GamePiece second, List<GamePiece> upcoming) {
+        List<GamePiece> pieces = new ArrayList<>();
+        pieces.add(first);
+        if (second != null) {
+            pieces.add(second);
+            pieces.addAll(upcoming);
+        }
+        return pieces.toArray(new GamePiece[0]);
+    }
+
+    /**
+     * Start searching on the given pool
+     *
+     * @param pool the pool
+     */
+    void start(ForkJoinPool pool) {
+        pool.execute(() -> {
+            Hint hint = run(true);
+            if (!cancelled) {
+                logger.info("Hint found: {} after {} positions", hint, positions.sum());
+            }
+        });
+    }
+
+    /**
+     * Search and complete the result
+     *
+     * @param parallel whether to fork the root moves into the current pool, or search them one by one on the calling
+     *                 thread
+     * @return the best move, or null if no piece can be played anywhere
+     */
+    Hint run(boolean parallel) {
+        try {
+            Hint hint = order[0] == null ? null : search(parallel);
+            result.complete(hint);
+            return hint;
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Deepen the search one piece at a time, keeping the best move of the deepest search which finished
+     *
+     * @param parallel whether to fork the root moves
+     * @return the best move, or null if no piece can be played anywhere
+     */
+    private Hint search(boolean parallel) {
+        List<RootMove> moves = rootMoves(order, false);
+        if (swapOrder != null) {
+            moves.addAll(rootMoves(swapOrder, true));
+        }
+
+        Hint best = null;
+        for (int depth = 1; depth <= Math.min(maxDepth, order.length) && !moves.isEmpty(); depth++) {
+            List<RootMove> tasks = new ArrayList<>(moves.size());
+            for (RootMove move : moves) {
+                tasks.add(new RootMove(move, depth));
+            }
+            if (parallel) {
+                ForkJoinTask.invokeAll(tasks);
+            } else {
+                tasks.forEach(ForkJoinTask::invoke);
+            }
+
+            RootMove top = null;
+            boolean complete = true;
+            for (RootMove task : tasks) {
+                if (Double.isNaN(task.value)) {
+                    complete = false;
+                } else if (top == null || task.value > top.value) {
+                    top = task;
+                }
+            }
+            if (top != null && (complete || best == null)) {
+                best = new Hint(top.swap, top.piece, top.x, top.y, top.value, depth, complete, positions.sum());
+            }
+            if (!complete) break;
+        }
+        return best;
+    }
+
+    /**
+     * List every rotation of the first piece at every legal position
+     *
+     * @param pieces the order pieces are played in
+     * @param swap   whether the order needs a swap first
+     * @return the moves
+     */
+    private List<RootMove> rootMoves(GamePiece[] pieces, boolean swap) {
+        List<RootMove> moves = new ArrayList<>();
+        GamePiece piece = pieces[0];
+        for (int rotation = 0; rotation < GamePiece.ROTATIONS; rotation++) {
+            GamePiece rotated = piece.rotate(rotation);
+            if (repeatsEarlierRotation(piece, rotation)) continue;
+
+            var mask = root.legalPlacements(rotated.getShape());
+            for (int y = 0; y < mask.getRows(); y++) {
+                for (long bits = mask.getRowBits(y); bits != 0; bits &= bits - 1) {
+                    moves.add(new RootMove(pieces, swap, rotated, Long.numberOfTrailingZeros(bits), y, 0));
+                }
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * Check whether a rotation of a piece has the same shape as a lower rotation, so need not be searched again
+     *
+     * @param piece    the piece
+     * @param rotation the rotation
+     * @return true if an earlier rotation has the same shape
+     */
+    private static boolean repeatsEarlierRotation(GamePiece piece, int rotation) {
+        int shape = piece.rotate(rotation).getShape();
+        for (int earlier = 0; earlier < rotation; earlier++) {
+            if (piece.rotate(earlier).getShape() == shape) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check whether the search should stop, because it was cancelled or is out of time
+     *
+     * @return true to stop
+     */
+    private boolean shouldStop() {
+        if (!stopped && timed && System.nanoTime() - deadline > 0) {
+            stopped = true;
+        }
+        return stopped;
+    }
+
+    /**
+     * Find the best total of scores and final board rating from playing the pieces from the given ply onwards
+     *
+     * @param pieces     the order pieces are played in
+     * @param ply        the piece to play now
+     * @param depth      the number of pieces to play in all
+     * @param boards     a board for each ply, the parent being the board of the previous ply
+     * @param multiplier the multiplier before this piece
+     * @return the best value, or NaN if the search stopped
+     */
+    private double searchPly(GamePiece[] pieces, int ply, int depth, BitBoard[] boards, int multiplier) {
+        BitBoard parent = boards[ply - 1];
+        BitBoard child = boards[ply];
+        GamePiece piece = pieces[ply];
+
+        long context = context(pieces, ply + 1, depth, multiplier);
+
+        double best = Double.NEGATIVE_INFINITY;
+        for (int rotation = 0; rotation < GamePiece.ROTATIONS; rotation++) {
+            if (repeatsEarlierRotation(piece, rotation)) continue;
+            GamePiece rotated = piece.rotate(rotation);
+
+            double cached = table.get(parent.getHash(), rotated, context);
+            if (!Double.isNaN(cached)) {
+                best = Math.max(best, cached);
+                continue;
+            }
+
+            double rotationBest = Double.NEGATIVE_INFINITY;
+            var mask = parent.legalPlacements(rotated.getShape());
+            for (int y = 0; y < mask.getRows(); y++) {
+                for (long bits = mask.getRowBits(y); bits != 0; bits &= bits - 1) {
+                    if (shouldStop()) {
+                        return Double.NaN;
+                    }
+                    child.copyFrom(parent);
+                    child.play(rotated.getShape(), rotated.getValue(), Long.numberOfTrailingZeros(bits), y);
+                    int gain = BoardEvaluator.clearLines(child, multiplier);
+                    positions.increment();
+
+                    double value = ply + 1 < depth
+                        ? searchPly(pieces, ply + 1, depth, boards, gain > 0 ? multiplier + 1 : 1)
+                        : BoardEvaluator.evaluate(child);
+                    if (Double.isNaN(value)) {
+                        return Double.NaN;
+                    }
+                    rotationBest = Math.max(rotationBest, gain + value);
+                }
+            }
+            table.put(parent.getHash(), rotated, context, rotationBest);
+            best = Math.max(best, rotationBest);
+        }
+        if (best == Double.NEGATIVE_INFINITY) {
+            //The piece fits nowhere, so the player will lose a life waiting for the timer
+            return BoardEvaluator.evaluate(parent) - BoardEvaluator.STUCK_PENALTY;
+        }
+        return best;
+    }
+
+    /**
+     * Pack everything other than the board and the piece which the value of playing a piece depends on: the pieces
+     * still to come after it, the multiplier and the size of the board
+     *
+     * @param pieces     the order pieces are played in
+     * @param from       the first piece still to come
+     * @param depth      the number of pieces to play in all
+     * @param multiplier the multiplier before the piece
+     * @return the context for the transposition table
+     */
+    private long context(GamePiece[] pieces, int from, int depth, int multiplier) {
+        long tail = 0;
+        for (int i = from; i < depth; i++) {
+            tail = tail << 4 | (pieces[i].getPiece() + 1);
+        }
+        return tail << 32 | (long) (multiplier & 0xFFFFF) << 12 | (root.getCols() - 1) << 6 | (root.getRows() - 1);
+    }
+
+    /**
+     * Stop the search. Its result will never complete normally.
+     */
+    public void cancel() {
+        cancelled = true;
+        stopped = true;
+        result.cancel(false);
+    }
+
+    /**
+     * Check whether the search was cancelled
+     *
+     * @return true if cancelled
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Get the result of the search, completed with the best move or null if no piece fits anywhere
+     *
+     * @return the result
+     */
+    public CompletableFuture<Hint> getResult() {
+        return result;
+    }
+
+    /**
+     * A root move, searched as its own task
+     */
+    private class RootMove extends RecursiveAction {
+
+        private final GamePiece[] pieces;
+        private final boolean swap;
+        private final GamePiece piece;
+        private final int x;
+        private final int y;
+        private final int depth;
+
+        /**
+         * The value found, NaN until the search of this move finishes
+         */
+        private double value = Double.NaN;
+
+        /**
+         * Create a root move
+         *
+         * @param pieces the order pieces are played in
+         * @param swap   whether the order needs a swap first
+         * @param piece  the first piece, rotated
+         * @param x      column
+         * @param y      row
+         * @param depth  the number of pieces to play
+         */
+        private RootMove(GamePiece[] pieces, boolean swap, GamePiece piece, int x, int y, int depth) {
+            this.pieces = pieces;
+            this.swap = swap;
+            this.piece = piece;
+            this.x = x;
+            this.y = y;
+            this.depth = depth;
+        }
+
+        /**
+         * Create a task searching a move to a depth
+         *
+         * @param move  the move
+         * @param depth the number of pieces to play
+         */
+        private RootMove(RootMove move, int depth) {
+            this(move.pieces, move.swap, move.piece, move.x, move.y, depth);
+        }
+
+        @Override
+        protected void compute() {
+            if (shouldStop()) return;
+
+            BitBoard[] boards = new BitBoard[depth];
+            for (int i = 0; i < depth; i++) {
+                boards[i] = new BitBoard(root.getCols(), root.getRows());
+            }
+            BitBoard board = boards[0];
+            board.copyFrom(root);
+            board.play(piece.getShape(), piece.getValue(), x, y);
+            int gain = BoardEvaluator.clearLines(board, multiplier);
+            positions.increment();
+
+            double rest = depth > 1
+                ? searchPly(pieces, 1, depth, boards, gain > 0 ? multiplier + 1 : 1)
+                : BoardEvaluator.evaluate(board);
+            if (!Double.isNaN(rest)) {
+                value = gain + rest;
+            }
+        }
+    }
+}
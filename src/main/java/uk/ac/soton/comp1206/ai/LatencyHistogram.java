@@ -0,0 +1,131 @@
+package uk.ac.soton.comp1206.ai;
+
+/**
+ * A LatencyHistogram counts durations in buckets which widen with the duration, so percentiles can be read back to
+ * within about 6% from a fixed, small array however many durations are recorded.
+ * <p>
+ * Durations below 32 get a bucket each; above that, each power of two is split into 16 buckets. A histogram is not
+ * thread safe: give each thread its own and merge them afterwards.
+ */
+public class LatencyHistogram {
+
+    /**
+     * Each power of two is split into 2 ^ SUB_BITS buckets
+     */
+    private static final int SUB_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    /**
+     * Enough buckets for any positive long
+     */
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKETS];
+    private long count;
+    private long total;
+    private long max;
+
+    /**
+     * Record a duration
+     *
+     * @param value the duration, negative values counting as 0
+     */
+    public void record(long value) {
+        value = Math.max(0, value);
+        counts[bucket(value)]++;
+        count++;
+        total += value;
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Add every duration recorded by another histogram to this one
+     *
+     * @param other the other histogram
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        total += other.total;
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Find the bucket a duration falls in
+     *
+     * @param value the duration
+     * @return the bucket
+     */
+    private static int bucket(long value) {
+        if (value < 2 * SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    /**
+     * Get the smallest duration which falls in a bucket
+     *
+     * @param bucket the bucket
+     * @return the duration
+     */
+    private static long lowest(int bucket) {
+        if (bucket < 2 * SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        return (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+    }
+
+    /**
+     * Get the duration below which the given fraction of durations fall
+     *
+     * @param fraction the fraction, from 0 to 1, for example 0.99 for the 99th percentile
+     * @return the duration, or 0 if nothing was recorded
+     */
+    public long percentile(double fraction) {
+        if (count == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(fraction * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                //Report the middle of the bucket, but never more than the longest duration seen
+                long low = lowest(i);
+                long high = i + 1 < BUCKETS ? lowest(i + 1) - 1 : Long.MAX_VALUE;
+                return Math.min(max, low + (high - low) / 2);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Get the number of durations recorded
+     *
+     * @return count
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Get the mean duration
+     *
+     * @return the mean, or 0 if nothing was recorded
+     */
+    public double getMean() {
+        return count == 0 ? 0 : (double) total / count;
+    }
+
+    /**
+     * Get the longest duration recorded
+     *
+     * @return max
+     */
+    public long getMax() {
+        return max;
+    }
+}
@@ -0,0 +1,67 @@
+package uk.ac.soton.comp1206.ai;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import uk.ac.soton.comp1206.game.BitBoard;
+import uk.ac.soton.comp1206.game.GamePiece;
+import uk.ac.soton.comp1206.game.GameSnapshot;
+import uk.ac.soton.comp1206.game.PlacementMask;
+
+/**
+ * A bot which plays the current piece at a random legal position in a random rotation, never swapping. It is the
+ * baseline every other bot should beat.
+ */
+public class RandomBot implements BotStrategy {
+
+    /**
+     * The bot's own random number generator
+     */
+    private final SplittableRandom random;
+
+    /**
+     * Create a random bot
+     *
+     * @param seed the seed for its choices
+     */
+    public RandomBot(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Choose a random legal move for the current piece
+     *
+     * @param snapshot the state of the game
+     * @param upcoming ignored
+     * @return the move, or null if the piece fits nowhere
+     */
+    @Override
+    public Hint choose(GameSnapshot snapshot, List<GamePiece> upcoming) {
+        GamePiece current = snapshot.getCurrentPiece();
+        if (current == null) return null;
+
+        BitBoard board = snapshot.toBoard();
+
+        PlacementMask[] masks = new PlacementMask[GamePiece.ROTATIONS];
+        int total = 0;
+        for (int rotation = 0; rotation < GamePiece.ROTATIONS; rotation++) {
+            masks[rotation] = board.legalPlacements(current.rotate(rotation).getShape());
+            total += masks[rotation].count();
+        }
+        if (total == 0) return null;
+
+        //Pick the n-th legal move across every rotation
+        int n = random.nextInt(total);
+        for (int rotation = 0; rotation < GamePiece.ROTATIONS; rotation++) {
+            PlacementMask mask = masks[rotation];
+            for (int y = 0; y < mask.getRows(); y++) {
+                for (long bits = mask.getRowBits(y); bits != 0; bits &= bits - 1) {
+                    if (n-- == 0) {
+                        return new Hint(false, current.rotate(rotation), Long.numberOfTrailingZeros(bits), y, 0, 1,
+                            true, total);
+                    }
+                }
+            }
+        }
+        throw new IllegalStateException("Legal move count changed while choosing");
+    }
+}
@@ -0,0 +1,45 @@
+package uk.ac.soton.comp1206.ai;
+
+import java.util.List;
+import uk.ac.soton.comp1206.game.GamePiece;
+import uk.ac.soton.comp1206.game.GameSnapshot;
+
+/**
+ * A bot which plays the move the hint search rates best. With a depth of 1 it is greedy, only rating the board after
+ * the current piece; deeper bots look further ahead through the upcoming pieces.
+ * <p>
+ * The search runs entirely on the calling thread: bots are run many games at a time, which already keeps every core
+ * busy, and a move's decision time is then only its own.
+ */
+public class SearchBot implements BotStrategy {
+
+    /**
+     * The engine searching for moves
+     */
+    private final HintEngine engine;
+
+    /**
+     * Create a search bot
+     *
+     * @param depth  the number of pieces to look ahead
+     * @param budget the longest one move may take to choose, in milliseconds, or 0 for no limit
+     * @param table  values worked out by earlier searches, which may be shared with other bots
+     */
+    public SearchBot(int depth, long budget, TranspositionTable table) {
+        engine = new HintEngine(table);
+        engine.setDepth(depth);
+        engine.setBudget(budget);
+    }
+
+    /**
+     * Choose the best move found by the search
+     *
+     * @param snapshot the state of the game
+     * @param upcoming the pieces which will be dealt after the following piece, if known
+     * @return the move, or null if no piece fits anywhere
+     */
+    @Override
+    public Hint choose(GameSnapshot snapshot, List<GamePiece> upcoming) {
+        return engine.searchNow(snapshot, upcoming);
+    }
+}
@@ -0,0 +1,387 @@
+package uk.ac.soton.comp1206.ai;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import uk.ac.soton.comp1206.ai.TournamentReport.GameResult;
+import uk.ac.soton.comp1206.game.GameCore;
+import uk.ac.soton.comp1206.game.GameEvent;
+import uk.ac.soton.comp1206.game.GamePiece;
+import uk.ac.soton.comp1206.game.PieceSequence;
+
+/**
+ * A Tournament plays many headless games at once, each driven by a bot, to see how well the bots play, how the
+ * difficulty curve treats them and how fast the game engine runs.
+ * <p>
+ * Games run on a ForkJoinPool with a worker per core by default, split in halves so idle workers steal games from busy
+ * ones. Every game deals its pieces from its own seed, the tournament's seed plus the game's number, and by default
+ * the search bots have no time budget and always search to their full depth, so a tournament can be played again
+ * exactly. Giving the searches a budget makes the moves depend on how fast the machine is, so the results are then
+ * only repeatable for the random bot. The game timer is simulated: the bot is taken to think for a fixed time per
+ * piece by the game clock, and the piece times out if that is longer than the level allows.
+ */
+public class Tournament {
+
+    /**
+     * The bots which can play
+     */
+    public enum Bot {
+        /**
+         * Plays anywhere the piece fits
+         */
+        RANDOM,
+        /**
+         * Plays the move leaving the best board
+         */
+        GREEDY,
+        /**
+         * Plays the move leaving the best board after the following piece too
+         */
+        LOOKAHEAD;
+
+        /**
+         * Create a bot for one game
+         *
+         * @param seed   the game's seed
+         * @param budget the longest a search may take, in milliseconds
+         * @param table  values worked out by every bot's searches
+         * @return the bot
+         */
+        BotStrategy create(long seed, long budget, TranspositionTable table) {
+            return switch (this) {
+                case RANDOM -> new RandomBot(seed);
+                case GREEDY -> new SearchBot(1, budget, table);
+                case LOOKAHEAD -> new SearchBot(2, budget, table);
+            };
+        }
+    }
+
+    /**
+     * The log4j configuration used when run from the command line
+     */
+    public static final String LOG_CONFIG = "log4j2-headless.xml";
+
+    /**
+     * The number of pieces after the following piece shown to the bots
+     */
+    private static final int UPCOMING = 2;
+
+    /**
+     * The number of values held in the transposition table shared by every game
+     */
+    private static final int TABLE_SIZE = 1 << 20;
+
+    private final Bot bot;
+    private final int games;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int cols = 5;
+    private int rows = 5;
+    private long seed = PieceSequence.randomSeed();
+    private PieceSequence.Mode mode = PieceSequence.Mode.RANDOM;
+    private int maxMoves = 10000;
+    private long thinkMillis = 1000;
+    private long budget = 0;
+
+    /**
+     * Create a tournament
+     *
+     * @param bot   the bot playing every game
+     * @param games the number of games
+     */
+    public Tournament(Bot bot, int games) {
+        if (games < 1) {
+            throw new IllegalArgumentException("A tournament needs at least one game: " + games);
+        }
+        this.bot = bot;
+        this.games = games;
+    }
+
+    /**
+     * Play every game and wait for them all to finish
+     *
+     * @return the results
+     */
+    public TournamentReport run() {
+        GameResult[] results = new GameResult[games];
+        Queue<LatencyHistogram> histograms = new ConcurrentLinkedQueue<>();
+        ThreadLocal<LatencyHistogram> latency = ThreadLocal.withInitial(() -> {
+            LatencyHistogram histogram = new LatencyHistogram();
+            histograms.add(histogram);
+            return histogram;
+        });
+
+        //Every game is on the same size of board, so the bots can share what their searches work out
+        TranspositionTable table = new TranspositionTable(TABLE_SIZE);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long started = System.nanoTime();
+        try {
+            pool.invoke(new Games(0, games, results, latency, table));
+        } finally {
+            pool.shutdown();
+        }
+        long elapsed = System.nanoTime() - started;
+
+        LatencyHistogram all = new LatencyHistogram();
+        histograms.forEach(all::add);
+        String description = toString();
+        if (table.getHits() + table.getMisses() > 0) {
+            description += String.format("%nTransposition table hit rate %.1f%% of %d lookups",
+                100.0 * table.getHits() / (table.getHits() + table.getMisses()), table.getHits() + table.getMisses());
+        }
+        return new TournamentReport(description, results, all, elapsed);
+    }
+
+    /**
+     * Play one game to the end, or until the most moves have been played
+     *
+     * @param gameSeed the seed of the game's pieces
+     * @param latency  where to record how long each move took to decide
+     * @param table    values worked out by every bot's searches
+     * @return how the game ended
+     */
+    private GameResult play(long gameSeed, LatencyHistogram latency, TranspositionTable table) {
+        PieceSequence pieces = new PieceSequence(gameSeed, mode);
+        GameCore core = new GameCore(cols, rows, pieces);
+        int[] stuck = new int[1];
+        core.setOnGameEvent(event -> {
+            if (event == GameEvent.STUCK) stuck[0]++;
+        });
+        core.start();
+        BotStrategy strategy = bot.create(gameSeed, budget, table);
+
+        int moves = 0;
+        int timeouts = 0;
+        long clock = 0;
+        while (!core.isGameOver() && moves < maxMoves) {
+            List<GamePiece> upcoming = new ArrayList<>(UPCOMING);
+            for (int i = 0; i < UPCOMING; i++) {
+                upcoming.add(pieces.peek(i));
+            }
+            long decideStart = System.nanoTime();
+            Hint move = strategy.choose(core.snapshot(), upcoming);
+            latency.record(System.nanoTime() - decideStart);
+
+            int delay = core.getTimerDelay();
+            if (move == null || thinkMillis >= delay) {
+                clock += delay;
+                timeouts++;
+                core.timeout();
+                continue;
+            }
+            clock += thinkMillis;
+
+            if (move.isSwap()) {
+                core.swapCurrentPiece();
+            }
+            if (core.getCurrentPiece().getPiece() != move.getPiece().getPiece()) {
+                throw new IllegalStateException("Bot " + bot + " chose " + move + " but the current piece is "
+                    + core.getCurrentPiece() + " in game " + gameSeed);
+            }
+            core.setPieces(move.getPiece(), core.getFollowingPiece());
+            if (!core.playPiece(move.getX(), move.getY())) {
+                throw new IllegalStateException("Bot " + bot + " made an illegal move in game " + gameSeed + ": "
+                    + move);
+            }
+            moves++;
+        }
+        return new GameResult(gameSeed, core.getScore(), core.getLevel(), moves, timeouts, stuck[0], clock);
+    }
+
+    /**
+     * Plays a range of games, splitting it in half until each task is a single game
+     */
+    private class Games extends RecursiveAction {
+
+        private final int from;
+        private final int to;
+        private final GameResult[] results;
+        private final ThreadLocal<LatencyHistogram> latency;
+        private final TranspositionTable table;
+
+        /**
+         * Create a task playing games from one number up to another
+         *
+         * @param from    the first game
+         * @param to      one past the last game
+         * @param results where to put each game's result
+         * @param latency each worker's latency histogram
+         * @param table   values worked out by every bot's searches
+         */
+        private Games(int from, int to, GameResult[] results, ThreadLocal<LatencyHistogram> latency,
+            TranspositionTable table) {
+            this.from = from;
+            this.to = to;
+            this.results = results;
+            this.latency = latency;
+            this.table = table;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                results[from] = play(seed + from, latency.get(), table);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Games(from, mid, results, latency, table), new Games(mid, to, results, latency, table));
+        }
+    }
+
+    /**
+     * Describe the tournament
+     *
+     * @return the description
+     */
+    @Override
+    public String toString() {
+        return String.format("%d games of %s on %dx%d, %s pieces from seed %d, %d ms to think, %d threads",
+            games, bot.name().toLowerCase(Locale.ROOT), cols, rows, mode.name().toLowerCase(Locale.ROOT), seed,
+            thinkMillis, threads);
+    }
+
+    /**
+     * Set the number of games played at once
+     *
+     * @param threads number of worker threads
+     */
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * Set the size of the board
+     *
+     * @param cols number of columns
+     * @param rows number of rows
+     */
+    public void setBoardSize(int cols, int rows) {
+        this.cols = cols;
+        this.rows = rows;
+    }
+
+    /**
+     * Set the seed of the first game; each game after uses the next seed
+     *
+     * @param seed the seed
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Set how pieces are chosen
+     *
+     * @param mode the mode
+     */
+    public void setMode(PieceSequence.Mode mode) {
+        this.mode = mode;
+    }
+
+    /**
+     * Set the most pieces played in one game, so games a bot never loses still finish
+     *
+     * @param maxMoves the most pieces
+     */
+    public void setMaxMoves(int maxMoves) {
+        this.maxMoves = maxMoves;
+    }
+
+    /**
+     * Set how long the bot takes to play each piece by the game clock
+     *
+     * @param thinkMillis time per piece in milliseconds
+     */
+    public void setThinkMillis(long thinkMillis) {
+        this.thinkMillis = thinkMillis;
+    }
+
+    /**
+     * Set the longest a search may take to choose one move, in real time. Any budget makes the moves depend on the
+     * machine, so a tournament with one cannot be played again exactly.
+     *
+     * @param budget the budget in milliseconds, or 0 to always search to full depth
+     */
+    public void setBudget(long budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * Run a tournament from the command line and print the results
+     *
+     * @param args options, see usage
+     */
+    public static void main(String[] args) {
+        //Loggers read their configuration when first used, so this must come before any game is created
+        if (System.getProperty("log4j2.configurationFile") == null) {
+            System.setProperty("log4j2.configurationFile", LOG_CONFIG);
+        }
+
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 == args.length) {
+                usage("Unexpected argument: " + args[i]);
+                return;
+            }
+            options.put(args[i].substring(2), args[++i]);
+        }
+
+        TournamentReport report;
+        try {
+            Tournament tournament = new Tournament(
+                Bot.valueOf(options.getOrDefault("bot", "greedy").toUpperCase(Locale.ROOT)),
+                Integer.parseInt(options.getOrDefault("games", "1000")));
+            for (Map.Entry<String, String> option : options.entrySet()) {
+                String value = option.getValue();
+                switch (option.getKey()) {
+                    case "bot", "games", "csv" -> {
+                    }
+                    case "threads" -> tournament.setThreads(Integer.parseInt(value));
+                    case "size" -> tournament.setBoardSize(Integer.parseInt(value), Integer.parseInt(value));
+                    case "seed" -> tournament.setSeed(Long.parseLong(value));
+                    case "mode" -> tournament.setMode(PieceSequence.Mode.valueOf(value.toUpperCase(Locale.ROOT)));
+                    case "max-moves" -> tournament.setMaxMoves(Integer.parseInt(value));
+                    case "think" -> tournament.setThinkMillis(Long.parseLong(value));
+                    case "budget" -> tournament.setBudget(Long.parseLong(value));
+                    default -> throw new IllegalArgumentException("Unknown option --" + option.getKey());
+                }
+            }
+            report = tournament.run();
+        } catch (IllegalArgumentException e) {
+            usage(e.getMessage());
+            return;
+        }
+        report.print(System.out);
+
+        if (options.containsKey("csv")) {
+            Path csv = Paths.get(options.get("csv"));
+            try {
+                report.writeCsv(csv);
+                System.out.println("Results written to " + csv);
+            } catch (IOException e) {
+                System.err.println("Could not write " + csv + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Explain a mistake in the command line and how to use it
+     *
+     * @param problem what was wrong
+     */
+    private static void usage(String problem) {
+        System.err.println(problem);
+        System.err.println("Options: --games N (1000)  --bot random|greedy|lookahead (greedy)  --threads N (cores)");
+        System.err.println("         --size N (5)  --seed N  --mode random|bag (random)  --max-moves N (10000)");
+        System.err.println("         --think MS per piece by the game clock (1000)  --budget MS per search (0, no limit)");
+        System.err.println("         --csv FILE to write every game's result");
+    }
+}
@@ -0,0 +1,230 @@
+package uk.ac.soton.comp1206.ai;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * The results of a Tournament: how every game ended, how long the bots took to decide each move and how fast the
+ * games were played.
+ */
+public class TournamentReport {
+
+    /**
+     * How one game ended
+     */
+    public static class GameResult {
+
+        private final long seed;
+        private final int score;
+        private final int level;
+        private final int moves;
+        private final int timeouts;
+        private final int stuck;
+        private final long gameMillis;
+
+        /**
+         * Create a game result
+         *
+         * @param seed       the seed of the game's piece sequence
+         * @param score      final score
+         * @param level      final level
+         * @param moves      pieces played
+         * @param timeouts   times the timer ran out
+         * @param stuck      times neither piece fit anywhere
+         * @param gameMillis how long the game lasted by the game clock
+         */
+        public GameResult(long seed, int score, int level, int moves, int timeouts, int stuck, long gameMillis) {
+            this.seed = seed;
+            this.score = score;
+            this.level = level;
+            this.moves = moves;
+            this.timeouts = timeouts;
+            this.stuck = stuck;
+            this.gameMillis = gameMillis;
+        }
+
+        /**
+         * Get the seed of the game's piece sequence
+         *
+         * @return seed
+         */
+        public long getSeed() {
+            return seed;
+        }
+
+        /**
+         * Get the final score
+         *
+         * @return score
+         */
+        public int getScore() {
+            return score;
+        }
+
+        /**
+         * Get the final level
+         *
+         * @return level
+         */
+        public int getLevel() {
+            return level;
+        }
+
+        /**
+         * Get the number of pieces played
+         *
+         * @return moves
+         */
+        public int getMoves() {
+            return moves;
+        }
+
+        /**
+         * Get the number of times the timer ran out
+         *
+         * @return timeouts
+         */
+        public int getTimeouts() {
+            return timeouts;
+        }
+
+        /**
+         * Get the number of times neither piece fit anywhere
+         *
+         * @return stuck count
+         */
+        public int getStuck() {
+            return stuck;
+        }
+
+        /**
+         * Get how long the game lasted by the game clock
+         *
+         * @return milliseconds
+         */
+        public long getGameMillis() {
+            return gameMillis;
+        }
+    }
+
+    private final String description;
+    private final GameResult[] results;
+    private final LatencyHistogram latency;
+    private final long elapsedNanos;
+
+    /**
+     * Create a report
+     *
+     * @param description  what was played
+     * @param results      every game, in seed order
+     * @param latency      the time taken to decide every move, in nanoseconds
+     * @param elapsedNanos how long the whole tournament took
+     */
+    public TournamentReport(String description, GameResult[] results, LatencyHistogram latency, long elapsedNanos) {
+        this.description = description;
+        this.results = results;
+        this.latency = latency;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Print a summary
+     *
+     * @param out where to print it
+     */
+    public void print(PrintStream out) {
+        double seconds = elapsedNanos / 1e9;
+        long moves = 0;
+        long timeouts = 0;
+        long stuck = 0;
+        long gameMillis = 0;
+        for (GameResult result : results) {
+            moves += result.moves;
+            timeouts += result.timeouts;
+            stuck += result.stuck;
+            gameMillis += result.gameMillis;
+        }
+        int[] scores = Arrays.stream(results).mapToInt(GameResult::getScore).sorted().toArray();
+        int[] levels = Arrays.stream(results).mapToInt(GameResult::getLevel).sorted().toArray();
+        int games = Math.max(1, results.length);
+
+        out.println(description);
+        out.printf("Elapsed          %.3f s%n", seconds);
+        out.printf("Games/sec        %.1f%n", results.length / seconds);
+        out.printf("Moves/sec        %.0f%n", moves / seconds);
+        out.printf("Moves/game       %.1f%n", (double) moves / games);
+        out.printf("Timeouts/game    %.2f%n", (double) timeouts / games);
+        out.printf("Stuck/game       %.2f%n", (double) stuck / games);
+        out.printf("Game length      %.1f s mean, by the game clock%n", gameMillis / 1000.0 / games);
+        out.printf("Score            %s%n", distribution(scores));
+        out.printf("Level            %s%n", distribution(levels));
+        out.printf("Decision latency p50 %.1f us, p99 %.1f us, max %.1f us, mean %.1f us over %d moves%n",
+            latency.percentile(0.50) / 1e3, latency.percentile(0.99) / 1e3, latency.getMax() / 1e3,
+            latency.getMean() / 1e3, latency.getCount());
+    }
+
+    /**
+     * Summarise a sorted set of values
+     *
+     * @param sorted the values in ascending order
+     * @return the summary
+     */
+    private static String distribution(int[] sorted) {
+        if (sorted.length == 0) return "-";
+        double mean = Arrays.stream(sorted).average().orElse(0);
+        double variance = Arrays.stream(sorted).mapToDouble(v -> (v - mean) * (v - mean)).sum() / sorted.length;
+        return String.format("min %d, p10 %d, p50 %d, p90 %d, p99 %d, max %d, mean %.1f, sd %.1f",
+            sorted[0], rank(sorted, 0.10), rank(sorted, 0.50), rank(sorted, 0.90), rank(sorted, 0.99),
+            sorted[sorted.length - 1], mean, Math.sqrt(variance));
+    }
+
+    /**
+     * Get the value below which the given fraction of a sorted set of values fall
+     *
+     * @param sorted   the values in ascending order
+     * @param fraction the fraction
+     * @return the value
+     */
+    private static int rank(int[] sorted, double fraction) {
+        int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    /**
+     * Write every game's result to a CSV file, one line per game
+     *
+     * @param file the file to write
+     * @throws IOException if the file can not be written
+     */
+    public void writeCsv(Path file) throws IOException {
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file))) {
+            writer.println("seed,score,level,moves,timeouts,stuck,game_millis");
+            for (GameResult result : results) {
+                writer.printf("%d,%d,%d,%d,%d,%d,%d%n", result.seed, result.score, result.level, result.moves,
+                    result.timeouts, result.stuck, result.gameMillis);
+            }
+        }
+    }
+
+    /**
+     * Get every game's result, in seed order
+     *
+     * @return the results
+     */
+    public GameResult[] getResults() {
+        return results;
+    }
+
+    /**
+     * Get the time taken to decide every move
+     *
+     * @return latency in nanoseconds
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+}
@@ -0,0 +1,148 @@
+package uk.ac.soton.comp1206.ai;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import uk.ac.soton.comp1206.game.GamePiece;
+
+/**
+ * A TranspositionTable remembers the values a search has worked out, keyed by the Zobrist hash of a board, a piece in
+ * one rotation and whatever else the value depends on, so a position reached again by another route, on another
+ * thread or in a later search is not searched again.
+ * <p>
+ * The table has a fixed number of slots and a new value simply replaces whatever was in its slot. The slots are split
+ * into stripes, each with its own lock, so threads only wait for each other when they touch the same stripe at the
+ * same moment. Keys are 64 bits, so two different positions sharing a key is possible but vanishingly rare.
+ */
+public class TranspositionTable {
+
+    /**
+     * The number of locks; a power of two well above the number of cores so collisions between threads are rare
+     */
+    private static final int STRIPES = 256;
+
+    private final long[] keys;
+    private final double[] values;
+    private final Object[] locks = new Object[STRIPES];
+    private final int mask;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Create a table
+     *
+     * @param capacity the number of slots, rounded up to a power of two
+     */
+    public TranspositionTable(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Unsupported capacity: " + capacity);
+        }
+        int size = Math.max(STRIPES, Integer.highestOneBit(capacity - 1) << 1);
+        this.keys = new long[size];
+        this.values = new double[size];
+        this.mask = size - 1;
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        Arrays.fill(values, Double.NaN);
+    }
+
+    /**
+     * Combine a board hash, a piece in its rotation and the rest of what a value depends on into one key
+     *
+     * @param hash    Zobrist hash of the board
+     * @param piece   the piece, in its rotation
+     * @param context anything else the value depends on
+     * @return the key
+     */
+    private static long key(long hash, GamePiece piece, long context) {
+        long z = context * 0x9E3779B97F4A7C15L + piece.getPiece() * GamePiece.ROTATIONS + piece.getRotation();
+        //The finaliser of SplittableRandom, so every bit of the context changes about half the bits of the key
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return hash ^ z ^ (z >>> 31);
+    }
+
+    /**
+     * Look up a value
+     *
+     * @param hash    Zobrist hash of the board
+     * @param piece   the piece, in its rotation
+     * @param context anything else the value depends on
+     * @return the value, or NaN if it is not in the table
+     */
+    public double get(long hash, GamePiece piece, long context) {
+        long key = key(hash, piece, context);
+        int slot = (int) (key ^ (key >>> 32)) & mask;
+        double value;
+        synchronized (locks[slot & (STRIPES - 1)]) {
+            value = keys[slot] == key ? values[slot] : Double.NaN;
+        }
+        if (Double.isNaN(value)) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return value;
+    }
+
+    /**
+     * Store a value, replacing whatever was in its slot
+     *
+     * @param hash    Zobrist hash of the board
+     * @param piece   the piece, in its rotation
+     * @param context anything else the value depends on
+     * @param value   the value
+     */
+    public void put(long hash, GamePiece piece, long context, double value) {
+        long key = key(hash, piece, context);
+        int slot = (int) (key ^ (key >>> 32)) & mask;
+        synchronized (locks[slot & (STRIPES - 1)]) {
+            keys[slot] = key;
+            values[slot] = value;
+        }
+    }
+
+    /**
+     * Empty the table
+     */
+    public void clear() {
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            synchronized (locks[stripe]) {
+                for (int slot = stripe; slot < keys.length; slot += STRIPES) {
+                    keys[slot] = 0;
+                    values[slot] = Double.NaN;
+                }
+            }
+        }
+        hits.reset();
+        misses.reset();
+    }
+
+    /**
+     * Get the number of slots
+     *
+     * @return capacity
+     */
+    public int getCapacity() {
+        return keys.length;
+    }
+
+    /**
+     * Get the number of lookups which found a value
+     *
+     * @return hits
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Get the number of lookups which found nothing
+     *
+     * @return misses
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+}
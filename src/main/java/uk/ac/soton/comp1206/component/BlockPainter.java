@@ -0,0 +1,167 @@
+package uk.ac.soton.comp1206.component;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.CycleMethod;
+import javafx.scene.paint.RadialGradient;
+import javafx.scene.paint.Stop;
+
+/**
+ * Paints single blocks of a board onto a canvas at any position, so a GameBlock painting its own canvas and a
+ * GameBoard painting every block onto one shared canvas draw exactly the same thing.
+ * <p>
+ * Whole blocks are copied from a TileAtlas; the other methods draw the parts of a block from scratch, and are used to
+ * fill the atlas.
+ */
+final class BlockPainter {
+
+    private BlockPainter() {
+    }
+
+    /**
+     * Paint a block
+     *
+     * @param gc      where to paint
+     * @param x       left edge of the block
+     * @param y       top edge of the block
+     * @param width   width of the block
+     * @param height  height of the block
+     * @param value   the value of the block, 0 for empty
+     * @param hovered whether to paint the hover effect over it
+     * @param centre  whether to mark it as the centre of a piece
+     */
+    static void paint(GraphicsContext gc, double x, double y, double width, double height, int value,
+        boolean hovered, boolean centre) {
+        TileAtlas.forSize(width, height).draw(gc, x, y, value, hovered, centre);
+    }
+
+    /**
+     * Paint an empty block
+     *
+     * @param gc     where to paint
+     * @param x      left edge of the block
+     * @param y      top edge of the block
+     * @param width  width of the block
+     * @param height height of the block
+     */
+    static void paintEmpty(GraphicsContext gc, double x, double y, double width, double height) {
+        //Clear
+        gc.clearRect(x, y, width, height);
+
+        // Draws the outline of the tile
+        gc.setStroke(Color.DARKGRAY); // A dark outline
+        gc.setLineWidth(1); // Thin line
+        gc.strokeRect(x, y, width, height);
+
+        // Draws the top and left edges to look like a light source is coming from the top left
+        gc.setStroke(Color.LIGHTGRAY.brighter()); // Lighter edge to simulate a raised tile
+        gc.strokeLine(x, y, x + width, y); // Top edge
+        gc.strokeLine(x, y, x, y + height); // Left edge
+
+        // Draws the bottom and right edges to look indented
+        gc.setStroke(Color.DARKGRAY.darker()); // Darker edge to simulate shadow
+        gc.strokeLine(x + width, y, x + width, y + height); // Right edge
+        gc.strokeLine(x, y + height, x + width, y + height); // Bottom edge
+    }
+
+    /**
+     * Paint a filled block in the given colour
+     *
+     * @param gc     where to paint
+     * @param x      left edge of the block
+     * @param y      top edge of the block
+     * @param width  width of the block
+     * @param height height of the block
+     * @param colour the colour
+     */
+    static void paintColour(GraphicsContext gc, double x, double y, double width, double height, Color colour) {
+        // Clears the block
+        gc.clearRect(x, y, width, height);
+
+        // Fills the background to give depth, dark colour to simulate shadow
+        gc.setFill(colour.darker().darker());
+        gc.fillRect(x, y, width, height);
+
+        // Creates a 3D effect by layering gradients
+        RadialGradient gradient = new RadialGradient(
+            0, 0,
+            x + width / 2, y + height / 2,
+            Math.max(width, height) / 2,
+            false, CycleMethod.NO_CYCLE,
+            new Stop(0, colour.brighter().brighter()),
+            new Stop(1, colour)
+        );
+
+        // Apply gradient to simulate a curved surface
+        gc.setFill(gradient);
+        gc.fillRect(x + 3, y + 3, width - 6, height - 6);
+
+        // Draws the border for a crisp look
+        gc.setStroke(Color.BLACK);
+        gc.setLineWidth(1);
+        gc.strokeRect(x, y, width, height);
+    }
+
+    /**
+     * Paint the hover effect over a block
+     *
+     * @param gc     where to paint
+     * @param x      left edge of the block
+     * @param y      top edge of the block
+     * @param width  width of the block
+     * @param height height of the block
+     * @param value  the value of the block underneath
+     */
+    static void paintHover(GraphicsContext gc, double x, double y, double width, double height, int value) {
+        // If the value is 0 (empty block), use a more noticeable color for hover effect
+        if (value == 0) {
+            gc.setFill(Color.rgb(200, 200, 200, 0.5)); // Light gray with semi-transparency
+        } else {
+            gc.setFill(Color.rgb(255, 255, 255, 0.3)); // White with semi-transparency for colored blocks
+        }
+
+        // Draws the hover effect
+        gc.fillRect(x + 1, y + 1, width - 2, height - 2);
+
+        // Outlines for the hover effect to make it stand out
+        gc.setStroke(Color.rgb(255, 255, 255, 0.7));
+        gc.setLineWidth(2);
+        gc.strokeRect(x + 1, y + 1, width - 2, height - 2);
+    }
+
+    /**
+     * Paint the circle marking the centre of a piece
+     *
+     * @param gc     where to paint
+     * @param x      left edge of the block
+     * @param y      top edge of the block
+     * @param width  width of the block
+     * @param height height of the block
+     */
+    static void paintCentre(GraphicsContext gc, double x, double y, double width, double height) {
+        double radius = Math.min(width, height) / 4; // radius is a quarter of the smallest dimension
+        gc.setFill(Color.rgb(255, 255, 211, 0.7)); // Choose color for the center indicator
+        gc.fillOval(x + width / 2 - radius, y + height / 2 - radius, radius * 2, radius * 2);
+    }
+
+    /**
+     * Paint one frame of a block fading out
+     *
+     * @param gc       where to paint
+     * @param x        left edge of the block
+     * @param y        top edge of the block
+     * @param width    width of the block
+     * @param height   height of the block
+     * @param original the colour of the block before it faded
+     * @param opacity  how far through the fade, from 1 at the start to 0 at the end
+     */
+    static void paintFade(GraphicsContext gc, double x, double y, double width, double height, Color original,
+        double opacity) {
+        // Fade the colour through the global alpha, so no colour is made for each frame
+        double alpha = gc.getGlobalAlpha();
+        gc.setGlobalAlpha(alpha * opacity);
+        gc.setFill(original);
+        gc.fillRect(x, y, width, height);
+        gc.setGlobalAlpha(alpha);
+    }
+}
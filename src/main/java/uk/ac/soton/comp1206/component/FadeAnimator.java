@@ -0,0 +1,152 @@
+package uk.ac.soton.comp1206.component;
+
+import java.util.Arrays;
+import javafx.animation.AnimationTimer;
+
+/**
+ * A FadeAnimator runs every fade-out on one board from a single AnimationTimer.
+ * <p>
+ * Each fading block is a slot in a set of parallel arrays holding its cell, the value it faded from and when it
+ * started, so clearing any number of lines adds no timers and allocates nothing per frame. A block is dropped from its
+ * fade as soon as a new value is placed in it. The timer only runs while something is fading. Everything must happen
+ * on the JavaFX thread.
+ */
+final class FadeAnimator {
+
+    /**
+     * How long a fade lasts
+     */
+    static final long FADE_NANOS = 1_000_000_000L;
+
+    private final GameBoard board;
+    private final int cols;
+
+    /**
+     * The fading blocks, in slots 0 to active - 1: cell (y * cols + x), the value faded from and the start time
+     */
+    private final int[] cells;
+    private final int[] values;
+    private final long[] starts;
+    private int active;
+
+    /**
+     * The slot of each cell, or -1 if the cell is not fading
+     */
+    private final int[] slots;
+
+    /**
+     * Whether the timer is running
+     */
+    private boolean running;
+
+    /**
+     * Advances every fade once per pulse
+     */
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            advance(now);
+        }
+    };
+
+    /**
+     * Create the animator for a board
+     *
+     * @param board the board to paint the fades on
+     * @param cols  number of columns
+     * @param rows  number of rows
+     */
+    FadeAnimator(GameBoard board, int cols, int rows) {
+        this.board = board;
+        this.cols = cols;
+        this.cells = new int[cols * rows];
+        this.values = new int[cols * rows];
+        this.starts = new long[cols * rows];
+        this.slots = new int[cols * rows];
+        Arrays.fill(slots, -1);
+    }
+
+    /**
+     * Start fading a block out from a value, restarting its fade if it is already fading
+     *
+     * @param x     column
+     * @param y     row
+     * @param value the value to fade from
+     */
+    void start(int x, int y, int value) {
+        if (value == 0) {
+            return;
+        }
+        int cell = y * cols + x;
+        int slot = slots[cell];
+        if (slot < 0) {
+            slot = active++;
+            slots[cell] = slot;
+            cells[slot] = cell;
+        }
+        values[slot] = value;
+        starts[slot] = System.nanoTime();
+        if (!running) {
+            running = true;
+            timer.start();
+        }
+    }
+
+    /**
+     * Get the number of blocks fading right now
+     *
+     * @return active fades
+     */
+    int getActive() {
+        return active;
+    }
+
+    /**
+     * Paint the next frame of every fade, dropping those which have finished or been filled again
+     *
+     * @param now the time of this frame
+     */
+    private void advance(long now) {
+        //Paint any pending changes first, so they are not painted over this frame
+        board.flushRepaints();
+
+        int slot = 0;
+        while (slot < active) {
+            int cell = cells[slot];
+            int x = cell % cols;
+            int y = cell / cols;
+            double opacity = 1 - (double) (now - starts[slot]) / FADE_NANOS;
+            if (board.grid.get(x, y) != 0) {
+                //Filled again, so the repaint queue has already painted it
+                remove(slot);
+            } else if (opacity <= 0) {
+                board.paintFade(x, y, 0, 0);
+                remove(slot);
+            } else {
+                board.paintFade(x, y, values[slot], Math.min(opacity, 1));
+                slot++;
+            }
+        }
+
+        if (active == 0) {
+            timer.stop();
+            running = false;
+        }
+    }
+
+    /**
+     * Remove a fade, moving the last fade into its slot
+     *
+     * @param slot the slot to remove
+     */
+    private void remove(int slot) {
+        slots[cells[slot]] = -1;
+        int last = --active;
+        if (slot != last) {
+            cells[slot] = cells[last];
+            values[slot] = values[last];
+            starts[slot] = starts[last];
+            slots[cells[slot]] = slot;
+        }
+    }
+}
@@ -1,12 +1,15 @@
 package uk.ac.soton.comp1206.component;
 
-import java.util.HashSet;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.input.MouseButton;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.GridPane;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import uk.ac.soton.comp1206.event.BlockClickedListener;
+import uk.ac.soton.comp1206.event.CellChangedListener;
+import uk.ac.soton.comp1206.event.CellClickedListener;
 import uk.ac.soton.comp1206.event.RightClickListener;
 import uk.ac.soton.comp1206.game.Grid;
 
@@ -19,9 +22,27 @@ import uk.ac.soton.comp1206.game.Grid;
  * <p>
  * The GameBoard is only a visual representation and should not contain game logic or model logic in it, which should
  * take place in the Grid.
+ * <p>
+ * In CANVAS mode the board holds no GameBlocks at all: every block is drawn onto one Canvas the size of the board,
+ * and the mouse position is turned into a column and row by dividing by the block size. A large board then costs one
+ * node in the scene graph rather than one per block.
  */
 public class GameBoard extends GridPane {
 
+    /**
+     * How a GameBoard draws its blocks
+     */
+    public enum Mode {
+        /**
+         * One GameBlock Canvas for every block
+         */
+        NODES,
+        /**
+         * Every block drawn onto a single Canvas
+         */
+        CANVAS
+    }
+
     static final Logger logger = LogManager.getLogger(GameBoard.class);
 
     /**
@@ -50,14 +71,45 @@ public class GameBoard extends GridPane {
     final Grid grid;
 
     /**
-     * The blocks inside the grid
+     * How this board draws its blocks
+     */
+    private final Mode mode;
+
+    /**
+     * The blocks inside the grid, in NODES mode
      */
     public GameBlock[][] blocks;
 
+    /**
+     * The canvas every block is drawn onto, in CANVAS mode
+     */
+    private Canvas canvas;
+
+    /**
+     * Marks a block for repainting when its value changes, in CANVAS mode. Only registered with the board while this
+     * GameBoard is in a scene, so a board which outlives it does not keep it alive.
+     */
+    private CellChangedListener cellChangedListener;
+    private boolean attached;
+
+    /**
+     * The blocks waiting to be repainted at the next pulse
+     */
+    private RepaintQueue repaints;
+
+    /**
+     * Runs the fade-outs of cleared blocks
+     */
+    FadeAnimator fades;
+
     /**
      * The listener to call when a specific block is clicked
      */
     private BlockClickedListener blockClickedListener;
+    /**
+     * The listener to call with the column and row of a left-clicked block
+     */
+    private CellClickedListener cellClickedListener;
     /**
      * listener for right clicking
      */
@@ -66,6 +118,11 @@ public class GameBoard extends GridPane {
      * represents block currently being hovered on
       */
     private GameBlock hovering;
+    /**
+     * column and row of the block being hovered on in CANVAS mode, -1 when none
+     */
+    private int hoverX = -1;
+    private int hoverY = -1;
 
 
     /**
@@ -76,11 +133,24 @@ public class GameBoard extends GridPane {
      * @param height the visual height
      */
     public GameBoard(Grid grid, double width, double height) {
+        this(grid, width, height, Mode.NODES);
+    }
+
+    /**
+     * Create a new GameBoard, based off a given grid, with a visual width and height, drawn in the given mode.
+     *
+     * @param grid   linked grid
+     * @param width  the visual width
+     * @param height the visual height
+     * @param mode   how to draw the blocks
+     */
+    public GameBoard(Grid grid, double width, double height, Mode mode) {
         this.cols = grid.getCols();
         this.rows = grid.getRows();
         this.width = width;
         this.height = height;
         this.grid = grid;
+        this.mode = mode;
 
         //Build the GameBoard
         build();
@@ -101,6 +171,7 @@ public class GameBoard extends GridPane {
         this.width = width;
         this.height = height;
         this.grid = new Grid(cols, rows);
+        this.mode = Mode.NODES;
 
         //Build the GameBoard
         build();
@@ -112,20 +183,41 @@ public class GameBoard extends GridPane {
      * @param x column
      * @param y row
      * @return game block at the given column and row
+     * @throws IllegalStateException in CANVAS mode, which has no blocks
      */
     public GameBlock getBlock(int x, int y) {
+        if (mode == Mode.CANVAS) {
+            throw new IllegalStateException("A canvas board has no GameBlocks");
+        }
         return blocks[x][y];
     }
 
+    /**
+     * Get how this board draws its blocks
+     *
+     * @return the mode
+     */
+    public Mode getMode() {
+        return mode;
+    }
+
     /**
      * Build the GameBoard by creating a block at every x and y column and row
      */
     protected void build() {
-        logger.info("Building grid: {} x {}", cols, rows);
+        logger.info("Building grid: {} x {} ({})", cols, rows, mode);
 
         setMaxWidth(width);
         setMaxHeight(height);
 
+        fades = new FadeAnimator(this, cols, rows);
+        if (mode == Mode.CANVAS) {
+            repaints = new RepaintQueue(cols, rows, this::paintCell);
+            buildCanvas();
+            return;
+        }
+        repaints = new RepaintQueue(cols, rows, (x, y) -> blocks[x][y].paint());
+
         setGridLinesVisible(true);
 
         blocks = new GameBlock[cols][rows];
@@ -138,6 +230,138 @@ public class GameBoard extends GridPane {
 
     }
 
+    /**
+     * Build the single canvas, paint every block onto it and repaint a block whenever its value changes
+     */
+    private void buildCanvas() {
+        canvas = new Canvas(width, height);
+        add(canvas, 0, 0);
+
+        canvas.setOnMouseClicked(e -> {
+            int x = columnAt(e.getX());
+            int y = rowAt(e.getY());
+            if (x >= 0 && y >= 0) {
+                cellClicked(e, x, y);
+            }
+        });
+        canvas.setOnMouseMoved(e -> {
+            int x = columnAt(e.getX());
+            int y = rowAt(e.getY());
+            if (x >= 0 && y >= 0) {
+                hover(x, y);
+            } else {
+                clearHover();
+            }
+        });
+        canvas.setOnMouseExited(e -> clearHover());
+
+        cellChangedListener = (x, y, value) -> repaints.mark(x, y);
+        sceneProperty().addListener((observable, oldScene, newScene) -> {
+            if (newScene == null) {
+                detach();
+            } else {
+                attach();
+            }
+        });
+        if (getScene() != null) {
+            attach();
+        }
+        paintAll();
+    }
+
+    /**
+     * Start following changes to the board, repainting everything in case it changed while detached
+     */
+    private void attach() {
+        if (attached || cellChangedListener == null) return;
+        grid.getBoard().addCellChangedListener(cellChangedListener);
+        attached = true;
+        paintAll();
+    }
+
+    /**
+     * Stop following changes to the board. Called when this GameBoard leaves its scene, and can be called when it is
+     * no longer needed; it follows the board again if it is put back in a scene.
+     */
+    public void detach() {
+        if (!attached) return;
+        grid.getBoard().removeCellChangedListener(cellChangedListener);
+        attached = false;
+    }
+
+    /**
+     * Repaint a block at the next pulse, however many times it changes before then
+     *
+     * @param x column
+     * @param y row
+     */
+    void repaintLater(int x, int y) {
+        repaints.mark(x, y);
+    }
+
+    /**
+     * Paint any blocks waiting for the next pulse straight away, so an animation drawing over them this frame is not
+     * painted over
+     */
+    void flushRepaints() {
+        repaints.flush();
+    }
+
+    /**
+     * Get the queue of blocks waiting to be repainted, to read its counters
+     *
+     * @return the repaint queue
+     */
+    public RepaintQueue getRepaintQueue() {
+        return repaints;
+    }
+
+    /**
+     * Get the column under a position on the canvas
+     *
+     * @param px distance from the left edge
+     * @return the column, or -1 if off the board
+     */
+    private int columnAt(double px) {
+        int x = (int) Math.floor(px / (width / cols));
+        return x >= 0 && x < cols ? x : -1;
+    }
+
+    /**
+     * Get the row under a position on the canvas
+     *
+     * @param py distance from the top edge
+     * @return the row, or -1 if off the board
+     */
+    private int rowAt(double py) {
+        int y = (int) Math.floor(py / (height / rows));
+        return y >= 0 && y < rows ? y : -1;
+    }
+
+    /**
+     * Paint every block onto the canvas
+     */
+    private void paintAll() {
+        for (var y = 0; y < rows; y++) {
+            for (var x = 0; x < cols; x++) {
+                paintCell(x, y);
+            }
+        }
+    }
+
+    /**
+     * Paint one block onto the canvas from the value it holds now
+     *
+     * @param x column
+     * @param y row
+     */
+    private void paintCell(int x, int y) {
+        double blockWidth = width / cols;
+        double blockHeight = height / rows;
+        BlockPainter.paint(canvas.getGraphicsContext2D(), x * blockWidth, y * blockHeight, blockWidth, blockHeight,
+            grid.get(x, y), x == hoverX && y == hoverY, false);
+    }
+
     /**
      * Create a block at the given x and y position in the GameBoard
      *
@@ -184,13 +408,88 @@ public class GameBoard extends GridPane {
 
     /**
      * handles which blocks need to be faded out ( to clear a line)
-     * @param blocksToClear contains the block coordinates to fade out
+     * A block where a cleared row and a cleared column cross is only faded once. Must be called before the lines are
+     * emptied, so the colours to fade from are still in the grid.
+     * @param clearedRows mask of the rows to fade out, bit y for row y
+     * @param clearedCols mask of the columns to fade out, bit x for column x
+     */
+    public void fadeOut(long clearedRows, long clearedCols) {
+        for (var y = 0; y < rows; y++) {
+            boolean rowCleared = (clearedRows & (1L << y)) != 0;
+            for (var x = 0; x < cols; x++) {
+                if (rowCleared || (clearedCols & (1L << x)) != 0) {
+                    fades.start(x, y, grid.get(x, y));
+                }
+            }
+        }
+    }
+
+    /**
+     * Paint one frame of a block fading out, over the block as it is now
+     *
+     * @param x       column
+     * @param y       row
+     * @param value   the value it is fading from
+     * @param opacity how far through the fade, from 1 at the start to 0 at the end
      */
-    public void fadeOut(HashSet<GameBlockCoordinate> blocksToClear) {
-        for (GameBlockCoordinate coord : blocksToClear) { //clears the blocks
-            getBlock(coord.getX(), coord.getY()).fadeOut();
+    void paintFade(int x, int y, int value, double opacity) {
+        GraphicsContext gc;
+        double blockWidth = width / cols;
+        double blockHeight = height / rows;
+        double left = 0;
+        double top = 0;
+        if (mode == Mode.CANVAS) {
+            paintCell(x, y);
+            gc = canvas.getGraphicsContext2D();
+            left = x * blockWidth;
+            top = y * blockHeight;
+        } else {
+            blocks[x][y].paint();
+            gc = blocks[x][y].getGraphicsContext2D();
         }
+        if (opacity > 0) {
+            BlockPainter.paintFade(gc, left, top, blockWidth, blockHeight, GameBlock.COLOURS[value], opacity);
+        }
+    }
 
+    /**
+     * Hover over the block at a column and row, in either mode
+     *
+     * @param x column
+     * @param y row
+     */
+    public void hover(int x, int y) {
+        if (mode == Mode.NODES) {
+            hover(blocks[x][y]);
+            return;
+        }
+        if (x == hoverX && y == hoverY) {
+            return;
+        }
+        clearHover();
+        hoverX = x;
+        hoverY = y;
+        paintCell(x, y);
+    }
+
+    /**
+     * Remove the hover effect from whichever block has it, in either mode
+     */
+    public void clearHover() {
+        if (mode == Mode.NODES) {
+            if (hovering != null) {
+                hovering.removeHover();
+            }
+            return;
+        }
+        if (hoverX < 0) {
+            return;
+        }
+        int x = hoverX;
+        int y = hoverY;
+        hoverX = -1;
+        hoverY = -1;
+        paintCell(x, y);
     }
 
     /**
@@ -214,6 +513,16 @@ public class GameBoard extends GridPane {
         this.blockClickedListener = listener;
     }
 
+    /**
+     * Set the listener to handle an event when a block is left-clicked, given by its column and row. Called in either
+     * mode, alongside any BlockClickedListener.
+     *
+     * @param listener listener to add
+     */
+    public void setOnCellClick(CellClickedListener listener) {
+        this.cellClickedListener = listener;
+    }
+
     /**
      * sets listener to handle event when block is right-clicked
      *
@@ -238,6 +547,22 @@ public class GameBoard extends GridPane {
                 logger.info("left click");
             }
         }
+        cellClicked(event, block.getX(), block.getY());
+    }
+
+    /**
+     * Triggered when a block is clicked, in either mode, with its column and row. Call the attached cell listener on a
+     * left click, and the right click listener on a right click.
+     * @param event mouse event
+     * @param x     column clicked
+     * @param y     row clicked
+     */
+    private void cellClicked(MouseEvent event, int x, int y) {
+        if (event.getButton().equals(MouseButton.PRIMARY)) {
+            if (cellClickedListener != null) {
+                cellClickedListener.cellClicked(x, y);
+            }
+        }
         if (event.getButton().equals(MouseButton.SECONDARY)) {
             if (rightClickedListener != null) {
                 rightClickedListener.rightClicked();
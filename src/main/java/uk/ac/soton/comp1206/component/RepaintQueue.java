@@ -0,0 +1,190 @@
+package uk.ac.soton.comp1206.component;
+
+import javafx.animation.AnimationTimer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A RepaintQueue collects the blocks of a board which need repainting and paints them once per JavaFX pulse.
+ * <p>
+ * Marking a block only sets its bit in a dirty set, so a block which changes several times before the next frame,
+ * such as every block of the board when it is cleared, is painted once. The timer only runs while there is something
+ * to paint. Everything must happen on the JavaFX thread.
+ * <p>
+ * Counts of blocks marked and painted, and the time taken by each flush, are kept for tuning.
+ */
+public class RepaintQueue {
+
+    private static final Logger logger = LogManager.getLogger(RepaintQueue.class);
+
+    /**
+     * Paints a single block
+     */
+    interface CellPainter {
+
+        /**
+         * Paint the block at a column and row
+         *
+         * @param x column
+         * @param y row
+         */
+        void paint(int x, int y);
+    }
+
+    private final int cols;
+    private final int rows;
+    private final CellPainter painter;
+
+    /**
+     * One bit for each block waiting to be painted, bit (y * cols + x)
+     */
+    private final long[] dirty;
+
+    /**
+     * The number of blocks waiting to be painted
+     */
+    private int pending;
+
+    /**
+     * Whether the timer is running
+     */
+    private boolean scheduled;
+
+    private long marks;
+    private long repaints;
+    private long flushes;
+    private long flushNanos;
+    private long maxFlushNanos;
+
+    /**
+     * Flushes the dirty blocks once per pulse, stopping itself when there are none left
+     */
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            flush();
+            if (pending == 0) {
+                stop();
+                scheduled = false;
+            }
+        }
+    };
+
+    /**
+     * Create a queue for a board
+     *
+     * @param cols    number of columns
+     * @param rows    number of rows
+     * @param painter paints a block when it is flushed
+     */
+    RepaintQueue(int cols, int rows, CellPainter painter) {
+        this.cols = cols;
+        this.rows = rows;
+        this.painter = painter;
+        this.dirty = new long[(cols * rows + 63) >>> 6];
+    }
+
+    /**
+     * Mark a block as needing a repaint at the next pulse
+     *
+     * @param x column
+     * @param y row
+     */
+    void mark(int x, int y) {
+        marks++;
+        int index = y * cols + x;
+        long bit = 1L << index;
+        if ((dirty[index >>> 6] & bit) != 0) {
+            return;
+        }
+        dirty[index >>> 6] |= bit;
+        pending++;
+        if (!scheduled) {
+            scheduled = true;
+            timer.start();
+        }
+    }
+
+    /**
+     * Paint every dirty block now
+     */
+    void flush() {
+        if (pending == 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        int painted = 0;
+        for (int word = 0; word < dirty.length; word++) {
+            long bits = dirty[word];
+            dirty[word] = 0;
+            for (; bits != 0; bits &= bits - 1) {
+                int index = (word << 6) + Long.numberOfTrailingZeros(bits);
+                painter.paint(index % cols, index / cols);
+                painted++;
+            }
+        }
+        pending = 0;
+        long elapsed = System.nanoTime() - start;
+        repaints += painted;
+        flushes++;
+        flushNanos += elapsed;
+        maxFlushNanos = Math.max(maxFlushNanos, elapsed);
+        logger.trace("Repainted {} of {} blocks in {}us", painted, cols * rows, elapsed / 1000);
+    }
+
+    /**
+     * Get the number of times a block has been marked dirty
+     *
+     * @return marks
+     */
+    public long getMarks() {
+        return marks;
+    }
+
+    /**
+     * Get the number of blocks actually painted. The difference from the marks is the paints saved by coalescing.
+     *
+     * @return repaints
+     */
+    public long getRepaints() {
+        return repaints;
+    }
+
+    /**
+     * Get the number of flushes which painted anything
+     *
+     * @return flushes
+     */
+    public long getFlushes() {
+        return flushes;
+    }
+
+    /**
+     * Get the mean time taken by a flush
+     *
+     * @return mean flush time in nanoseconds
+     */
+    public long getMeanFlushNanos() {
+        return flushes == 0 ? 0 : flushNanos / flushes;
+    }
+
+    /**
+     * Get the longest time taken by a flush
+     *
+     * @return max flush time in nanoseconds
+     */
+    public long getMaxFlushNanos() {
+        return maxFlushNanos;
+    }
+
+    /**
+     * Reset the counters
+     */
+    public void resetStats() {
+        marks = 0;
+        repaints = 0;
+        flushes = 0;
+        flushNanos = 0;
+        maxFlushNanos = 0;
+    }
+}
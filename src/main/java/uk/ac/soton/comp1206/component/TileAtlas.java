@@ -0,0 +1,172 @@
+package uk.ac.soton.comp1206.component;
+
+import java.util.ArrayList;
+import java.util.List;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+import javafx.scene.transform.Transform;
+import javafx.stage.Screen;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A TileAtlas holds every way a block of one size can look, drawn once into a single image, so painting a block is one
+ * drawImage rather than building gradients and bevels again.
+ * <p>
+ * There is a column for each value in GameBlock.COLOURS and a row for each variant: plain, hovered, centre and hovered
+ * centre. Atlases are kept for each block size in use, and are drawn again when GameBlock.COLOURS is changed to a
+ * different theme. They must only be used on the JavaFX thread.
+ */
+final class TileAtlas {
+
+    private static final Logger logger = LogManager.getLogger(TileAtlas.class);
+
+    /**
+     * Variant flags, combined to give the row of a tile
+     */
+    private static final int HOVERED = 1;
+    private static final int CENTRE = 2;
+    private static final int VARIANTS = 4;
+
+    /**
+     * The atlases drawn so far, one per block size. Only a handful of sizes are ever on screen.
+     */
+    private static final List<TileAtlas> atlases = new ArrayList<>();
+
+    private final double width;
+    private final double height;
+
+    /**
+     * The colours the tiles were drawn with
+     */
+    private final Color[] palette;
+
+    /**
+     * Pixels per unit the atlas was drawn at, so it stays sharp on scaled screens
+     */
+    private final double scale;
+
+    /**
+     * The distance between tiles in the image, leaving a gap so tiles never bleed into each other
+     */
+    private final double pitchX;
+    private final double pitchY;
+
+    private final Image image;
+
+    /**
+     * Draw an atlas
+     *
+     * @param width  width of a block
+     * @param height height of a block
+     */
+    private TileAtlas(double width, double height) {
+        this.width = width;
+        this.height = height;
+        this.palette = GameBlock.COLOURS.clone();
+        this.scale = Screen.getPrimary().getOutputScaleX();
+        this.pitchX = Math.ceil(width) + 2;
+        this.pitchY = Math.ceil(height) + 2;
+
+        Canvas canvas = new Canvas(pitchX * palette.length, pitchY * VARIANTS);
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        for (int variant = 0; variant < VARIANTS; variant++) {
+            for (int value = 0; value < palette.length; value++) {
+                draw(gc, value * pitchX, variant * pitchY, value, variant);
+            }
+        }
+
+        SnapshotParameters parameters = new SnapshotParameters();
+        parameters.setFill(Color.TRANSPARENT);
+        parameters.setTransform(Transform.scale(scale, scale));
+        image = canvas.snapshot(parameters, null);
+        logger.debug("Drew tile atlas for {} x {} blocks", width, height);
+    }
+
+    /**
+     * Get the atlas for blocks of a size, drawing it if there is none yet for the current colours
+     *
+     * @param width  width of a block
+     * @param height height of a block
+     * @return the atlas
+     */
+    static TileAtlas forSize(double width, double height) {
+        for (int i = 0; i < atlases.size(); i++) {
+            TileAtlas atlas = atlases.get(i);
+            if (atlas.width == width && atlas.height == height) {
+                if (atlas.isCurrent()) {
+                    return atlas;
+                }
+                atlases.remove(i);
+                break;
+            }
+        }
+        TileAtlas atlas = new TileAtlas(width, height);
+        atlases.add(atlas);
+        return atlas;
+    }
+
+    /**
+     * Check the tiles were drawn with the colours in use now
+     *
+     * @return false if the theme has changed since
+     */
+    private boolean isCurrent() {
+        Color[] colours = GameBlock.COLOURS;
+        if (colours.length != palette.length) {
+            return false;
+        }
+        for (int i = 0; i < colours.length; i++) {
+            if (colours[i] != palette[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Draw one tile into the atlas
+     *
+     * @param gc      the atlas canvas
+     * @param x       left edge of the tile
+     * @param y       top edge of the tile
+     * @param value   the block value
+     * @param variant the variant flags
+     */
+    private void draw(GraphicsContext gc, double x, double y, int value, int variant) {
+        if (value == 0) {
+            BlockPainter.paintEmpty(gc, x, y, width, height);
+        } else {
+            BlockPainter.paintColour(gc, x, y, width, height, palette[value]);
+            if ((variant & CENTRE) != 0) {
+                BlockPainter.paintCentre(gc, x, y, width, height);
+            }
+        }
+        if ((variant & HOVERED) != 0) {
+            BlockPainter.paintHover(gc, x, y, width, height, value);
+        }
+    }
+
+    /**
+     * Draw a block from the atlas, replacing whatever was there
+     *
+     * @param gc      where to draw
+     * @param x       left edge of the block
+     * @param y       top edge of the block
+     * @param value   the block value
+     * @param hovered whether the block is hovered over
+     * @param centre  whether the block is the centre of a piece
+     */
+    void draw(GraphicsContext gc, double x, double y, int value, boolean hovered, boolean centre) {
+        int variant = (hovered ? HOVERED : 0) | (centre && value != 0 ? CENTRE : 0);
+        //Copy whole pixels, so the partly covered pixel at the edge is not resampled
+        double tileWidth = Math.ceil(width);
+        double tileHeight = Math.ceil(height);
+        gc.clearRect(x, y, tileWidth, tileHeight);
+        gc.drawImage(image, value * pitchX * scale, variant * pitchY * scale, tileWidth * scale, tileHeight * scale,
+            x, y, tileWidth, tileHeight);
+    }
+}
@@ -0,0 +1,15 @@
+package uk.ac.soton.comp1206.event;
+
+/**
+ * Listener used to handle the event when the value of a single cell on a board changes
+ */
+public interface CellChangedListener {
+
+    /**
+     * handles the changed cell
+     * @param x column of the cell
+     * @param y row of the cell
+     * @param value the new value of the cell
+     */
+    void cellChanged(int x, int y, int value);
+}
@@ -0,0 +1,15 @@
+package uk.ac.soton.comp1206.event;
+
+/**
+ * The Cell Clicked listener is used to handle the event when a cell in a GameBoard is left-clicked. It passes the
+ * column and row of the cell, so it works whether or not the board has a GameBlock for every cell
+ */
+public interface CellClickedListener {
+
+    /**
+     * Handle a cell clicked event
+     * @param x the column clicked
+     * @param y the row clicked
+     */
+    void cellClicked(int x, int y);
+}
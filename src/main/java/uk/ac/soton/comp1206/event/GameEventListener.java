@@ -0,0 +1,15 @@
+package uk.ac.soton.comp1206.event;
+
+import uk.ac.soton.comp1206.game.GameEvent;
+
+/**
+ * Listener used to handle the plain events raised by the game rules
+ */
+public interface GameEventListener {
+
+    /**
+     * handles the event
+     * @param event the event that happened
+     */
+    void onGameEvent(GameEvent event);
+}
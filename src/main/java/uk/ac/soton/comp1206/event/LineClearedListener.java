@@ -1,16 +1,17 @@
 package uk.ac.soton.comp1206.event;
 
-import java.util.HashSet;
-import uk.ac.soton.comp1206.component.GameBlockCoordinate;
-
 /**
  * Listener used to handle the event when a Line in the grid should be cleared
+ * <p>
+ * The lines are passed as packed masks rather than a set of blocks, so clearing lines creates no objects. Every block
+ * in a cleared row or a cleared column is being cleared.
  */
 public interface LineClearedListener {
 
     /**
      * triggers the line clearing
-     * @param coordinates: the blocks that need to be cleared
+     * @param clearedRows: mask of the rows being cleared, bit y set for row y
+     * @param clearedCols: mask of the columns being cleared, bit x set for column x
      */
-    public void clearLines(HashSet<GameBlockCoordinate> coordinates);
+    public void clearLines(long clearedRows, long clearedCols);
 }
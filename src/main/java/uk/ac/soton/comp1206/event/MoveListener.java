@@ -0,0 +1,19 @@
+package uk.ac.soton.comp1206.event;
+
+import uk.ac.soton.comp1206.game.GamePiece;
+import uk.ac.soton.comp1206.game.Move;
+
+/**
+ * Listener used to handle a move which changes the state of the game, before its effects are applied
+ */
+public interface MoveListener {
+
+    /**
+     * handles the move
+     * @param move the kind of move
+     * @param piece the current piece when the move was made
+     * @param x column the piece was played at, or -1 if it was not played
+     * @param y row the piece was played at, or -1 if it was not played
+     */
+    void moveMade(Move move, GamePiece piece, int x, int y);
+}
@@ -0,0 +1,14 @@
+package uk.ac.soton.comp1206.event;
+
+/**
+ * The Reconnect Listener is used to handle the event when the Communicator gets its connection back after losing it.
+ * By then the nickname and channel have been restored and any messages sent in the meantime have been replayed, so
+ * the listener only needs to bring the server up to date with anything it may have missed.
+ */
+public interface ReconnectListener {
+
+    /**
+     * Handle the connection coming back
+     */
+    void reconnected();
+}
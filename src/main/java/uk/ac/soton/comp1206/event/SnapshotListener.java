@@ -0,0 +1,15 @@
+package uk.ac.soton.comp1206.event;
+
+import uk.ac.soton.comp1206.game.GameSnapshot;
+
+/**
+ * Listener used to handle a new snapshot of the game state, published after each batch of commands
+ */
+public interface SnapshotListener {
+
+    /**
+     * handles the new snapshot
+     * @param snapshot the state of the game
+     */
+    void snapshotPublished(GameSnapshot snapshot);
+}
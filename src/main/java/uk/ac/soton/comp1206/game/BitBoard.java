@@ -0,0 +1,595 @@
+package uk.ac.soton.comp1206.game;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import uk.ac.soton.comp1206.event.CellChangedListener;
+
+/**
+ * The BitBoard is a compact store for the contents of a game board that does not depend on JavaFX.
+ * <p>
+ * Occupancy is held as one packed long per row (bit x is set when column x is filled), and the value of every cell is
+ * held in a separate byte colour plane.
+ * <p>
+ * Pieces are passed in as a 9 bit shape mask of their 3x3 grid (bit row * 3 + col, see GamePiece#getShape), so testing
+ * or placing a piece only takes a shift and an AND for each row of the piece.
+ * <p>
+ * The board also keeps a count of the filled cells in every row and column, so a full line can be spotted without
+ * scanning it. The rows and columns touched by the last piece played are remembered as masks, so only those lines need
+ * checking after a placement.
+ * <p>
+ * Every legal centre position of a shape can be found in one sweep with legalPlacements. The result is cached for each
+ * shape until the board next changes.
+ * <p>
+ * The board keeps a Zobrist hash of which cells are filled, updated with one XOR whenever a cell is filled or emptied,
+ * so searches can recognise a board they have seen before without comparing it cell by cell. Colours are left out of
+ * the hash as they make no difference to the rules.
+ * <p>
+ * A BitBoard can be at most 64 columns wide and 64 rows tall.
+ */
+public class BitBoard {
+
+    /**
+     * The widest board that can be stored, one bit per column in a long
+     */
+    public static final int MAX_COLS = Long.SIZE;
+
+    /**
+     * The tallest board that can be stored, one bit per row in the line masks
+     */
+    public static final int MAX_ROWS = Long.SIZE;
+
+    /**
+     * Returned by rowMask when part of a piece row falls outside the board
+     */
+    private static final long OUT_OF_BOUNDS = -1L;
+
+    /**
+     * The number of columns in this board
+     */
+    private final int cols;
+
+    /**
+     * The number of rows in this board
+     */
+    private final int rows;
+
+    /**
+     * Mask with a bit set for every column of a row
+     */
+    private final long fullRow;
+
+    /**
+     * Occupancy of each row, one bit per column
+     */
+    private final long[] rowBits;
+
+    /**
+     * The value of each cell, indexed by y * cols + x
+     */
+    private final byte[] colours;
+
+    /**
+     * The number of filled cells in each row
+     */
+    private final int[] rowCounts;
+
+    /**
+     * The number of filled cells in each column
+     */
+    private final int[] colCounts;
+
+    /**
+     * Mask of the rows touched by the last piece played, bit y for row y
+     */
+    private long lastRows;
+
+    /**
+     * Mask of the columns touched by the last piece played, bit x for column x
+     */
+    private long lastCols;
+
+    /**
+     * Incremented every time a cell changes, used to tell when cached placement masks are out of date
+     */
+    private long version;
+
+    /**
+     * A random key for every cell of the largest board, indexed by y * MAX_COLS + x. The seed is fixed so hashes are the
+     * same from one run to the next.
+     */
+    private static final long[] ZOBRIST = new SplittableRandom(0x5A0B215EL).longs(MAX_COLS * MAX_ROWS).toArray();
+
+    /**
+     * Zobrist hash of the filled cells, the XOR of the keys of every filled cell
+     */
+    private long hash;
+
+    /**
+     * Cached placement masks, indexed by shape mask
+     */
+    private final PlacementMask[] placementCache = new PlacementMask[1 << 9];
+
+    /**
+     * Listeners told about every cell that changes value
+     */
+    private final List<CellChangedListener> listeners = new ArrayList<>();
+
+    /**
+     * Create a new empty BitBoard with the specified number of columns and rows
+     *
+     * @param cols number of columns
+     * @param rows number of rows
+     */
+    public BitBoard(int cols, int rows) {
+        if (cols < 1 || cols > MAX_COLS || rows < 1 || rows > MAX_ROWS) {
+            throw new IllegalArgumentException("Unsupported board size: " + cols + " x " + rows);
+        }
+        this.cols = cols;
+        this.rows = rows;
+        this.fullRow = cols == MAX_COLS ? -1L : (1L << cols) - 1;
+        this.rowBits = new long[rows];
+        this.colours = new byte[cols * rows];
+        this.rowCounts = new int[rows];
+        this.colCounts = new int[cols];
+    }
+
+    /**
+     * Check whether a piece with the given shape fits on the board centred on the given position
+     *
+     * @param shape   9 bit shape mask of the piece
+     * @param centerX x coordinate of the centre of the piece
+     * @param centerY y coordinate of the centre of the piece
+     * @return whether the piece can be played
+     */
+    public boolean canPlay(int shape, int centerX, int centerY) {
+        for (int row = 0; row < 3; row++) {
+            int bits = (shape >>> (row * 3)) & 7;
+            if (bits == 0) continue;
+
+            int y = centerY + row - 1;
+            if (y < 0 || y >= rows) {
+                return false;
+            }
+            long mask = rowMask(bits, centerX - 1);
+            if (mask == OUT_OF_BOUNDS || (rowBits[y] & mask) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Place a piece with the given shape and value centred on the given position, if it fits
+     *
+     * @param shape   9 bit shape mask of the piece
+     * @param value   the value to fill the cells of the piece with
+     * @param centerX x coordinate of the centre of the piece
+     * @param centerY y coordinate of the centre of the piece
+     * @return whether the piece was played
+     */
+    public boolean play(int shape, int value, int centerX, int centerY) {
+        if (!canPlay(shape, centerX, centerY)) {
+            return false;
+        }
+        lastRows = 0;
+        lastCols = 0;
+        for (int row = 0; row < 3; row++) {
+            int bits = (shape >>> (row * 3)) & 7;
+            for (int col = 0; col < 3; col++) {
+                if ((bits & (1 << col)) != 0) {
+                    int x = centerX + col - 1;
+                    int y = centerY + row - 1;
+                    set(x, y, value);
+                    lastRows |= 1L << y;
+                    lastCols |= 1L << x;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Find every centre position where a piece with the given shape can be played, in one sweep over the rows of the
+     * board. The mask is cached until the board next changes.
+     *
+     * @param shape 9 bit shape mask of the piece
+     * @return the legal centre positions
+     */
+    public PlacementMask legalPlacements(int shape) {
+        PlacementMask cached = placementCache[shape];
+        if (cached != null && cached.getVersion() == version) {
+            return cached;
+        }
+
+        long[] legal = new long[rows];
+        for (int centerY = 0; centerY < rows; centerY++) {
+            legal[centerY] = legalRow(shape, centerY);
+        }
+
+        PlacementMask placements = new PlacementMask(legal, version);
+        placementCache[shape] = placements;
+        return placements;
+    }
+
+    /**
+     * Check whether a piece with the given shape can be played anywhere on the board. The sweep stops at the first row
+     * with a legal position, and uses the cached placement mask if it is up to date.
+     *
+     * @param shape 9 bit shape mask of the piece
+     * @return true if there is at least one legal centre position
+     */
+    public boolean canPlayAnywhere(int shape) {
+        PlacementMask cached = placementCache[shape];
+        if (cached != null && cached.getVersion() == version) {
+            return !cached.isEmpty();
+        }
+        for (int centerY = 0; centerY < rows; centerY++) {
+            if (legalRow(shape, centerY) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Find the legal centre columns of a shape in one row
+     *
+     * @param shape   9 bit shape mask of the piece
+     * @param centerY the row of the centre of the piece
+     * @return one bit set per legal centre column
+     */
+    private long legalRow(int shape, int centerY) {
+        long mask = fullRow;
+        for (int row = 0; row < 3 && mask != 0; row++) {
+            int bits = (shape >>> (row * 3)) & 7;
+            if (bits == 0) continue;
+
+            int y = centerY + row - 1;
+            if (y < 0 || y >= rows) {
+                return 0;
+            }
+            //A centre column is legal when the cell each block lands on is empty
+            long empty = ~rowBits[y] & fullRow;
+            if ((bits & 1) != 0) mask &= empty << 1;
+            if ((bits & 2) != 0) mask &= empty;
+            if ((bits & 4) != 0) mask &= empty >>> 1;
+        }
+        return mask & fullRow;
+    }
+
+    /**
+     * Shift one row of a piece so that its first column lands on the given board column
+     *
+     * @param bits   the 3 bits of the piece row
+     * @param offset the board column of the first column of the piece
+     * @return the row mask, or OUT_OF_BOUNDS if any filled block falls off the board
+     */
+    private long rowMask(int bits, int offset) {
+        if (offset >= cols || offset <= -3) {
+            return OUT_OF_BOUNDS;
+        }
+        long mask = offset >= 0 ? (long) bits << offset : (long) bits >>> -offset;
+        if (Long.bitCount(mask) != Integer.bitCount(bits) || (mask & ~fullRow) != 0) {
+            return OUT_OF_BOUNDS;
+        }
+        return mask;
+    }
+
+    /**
+     * Update the value at the given x and y index
+     *
+     * @param x     column
+     * @param y     row
+     * @param value the new value
+     * @throws IndexOutOfBoundsException if there is no such cell
+     */
+    public void set(int x, int y, int value) {
+        if (x < 0 || x >= cols || y < 0 || y >= rows) {
+            throw new IndexOutOfBoundsException("No cell at " + x + "," + y + " on a " + cols + " x " + rows + " board");
+        }
+        int index = y * cols + x;
+        if (colours[index] == value) return;
+
+        boolean wasFilled = colours[index] != 0;
+        colours[index] = (byte) value;
+        if (value == 0) {
+            rowBits[y] &= ~(1L << x);
+            rowCounts[y]--;
+            colCounts[x]--;
+            hash ^= ZOBRIST[y * MAX_COLS + x];
+        } else if (!wasFilled) {
+            rowBits[y] |= 1L << x;
+            rowCounts[y]++;
+            colCounts[x]++;
+            hash ^= ZOBRIST[y * MAX_COLS + x];
+        }
+        version++;
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).cellChanged(x, y, value);
+        }
+    }
+
+    /**
+     * Get the value at the given x and y index
+     *
+     * @param x column
+     * @param y row
+     * @return the value, or -1 if there is no such cell
+     */
+    public int get(int x, int y) {
+        if (x < 0 || x >= cols || y < 0 || y >= rows) {
+            return -1;
+        }
+        return colours[y * cols + x];
+    }
+
+    /**
+     * Check whether the given cell is filled
+     *
+     * @param x column
+     * @param y row
+     * @return true if the cell holds a block
+     */
+    public boolean isFilled(int x, int y) {
+        return (rowBits[y] & (1L << x)) != 0;
+    }
+
+    /**
+     * Get the packed occupancy of a row
+     *
+     * @param y row
+     * @return one bit per column, set when the cell is filled
+     */
+    public long getRowBits(int y) {
+        return rowBits[y];
+    }
+
+    /**
+     * Check whether every cell in a row is filled
+     *
+     * @param y row
+     * @return true if the row is full
+     */
+    public boolean isRowFull(int y) {
+        return rowCounts[y] == cols;
+    }
+
+    /**
+     * Check whether every cell in a column is filled
+     *
+     * @param x column
+     * @return true if the column is full
+     */
+    public boolean isColumnFull(int x) {
+        return colCounts[x] == rows;
+    }
+
+    /**
+     * Find which of the given rows are full
+     *
+     * @param candidates mask of the rows to check, bit y for row y
+     * @return mask of the rows which are full
+     */
+    public long fullRows(long candidates) {
+        long full = 0;
+        for (long lines = candidates; lines != 0; lines &= lines - 1) {
+            int y = Long.numberOfTrailingZeros(lines);
+            if (rowCounts[y] == cols) {
+                full |= 1L << y;
+            }
+        }
+        return full;
+    }
+
+    /**
+     * Find which of the given columns are full
+     *
+     * @param candidates mask of the columns to check, bit x for column x
+     * @return mask of the columns which are full
+     */
+    public long fullCols(long candidates) {
+        long full = 0;
+        for (long lines = candidates; lines != 0; lines &= lines - 1) {
+            int x = Long.numberOfTrailingZeros(lines);
+            if (colCounts[x] == rows) {
+                full |= 1L << x;
+            }
+        }
+        return full;
+    }
+
+    /**
+     * Get the number of filled cells in a row
+     *
+     * @param y row
+     * @return filled cells
+     */
+    public int getRowCount(int y) {
+        return rowCounts[y];
+    }
+
+    /**
+     * Get the number of filled cells in a column
+     *
+     * @param x column
+     * @return filled cells
+     */
+    public int getColumnCount(int x) {
+        return colCounts[x];
+    }
+
+    /**
+     * Get the rows touched by the last piece played
+     *
+     * @return mask with bit y set for each row
+     */
+    public long getLastRows() {
+        return lastRows;
+    }
+
+    /**
+     * Get the columns touched by the last piece played
+     *
+     * @return mask with bit x set for each column
+     */
+    public long getLastCols() {
+        return lastCols;
+    }
+
+    /**
+     * Get a number which changes every time the contents of the board change
+     *
+     * @return board version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Get the mask of a completely filled row
+     *
+     * @return one bit set per column
+     */
+    public long getFullRow() {
+        return fullRow;
+    }
+
+    /**
+     * Empty every cell of the board
+     */
+    public void clear() {
+        for (int y = 0; y < rows; y++) {
+            long bits = rowBits[y];
+            while (bits != 0) {
+                int x = Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                set(x, y, 0);
+            }
+        }
+    }
+
+    /**
+     * Empty every cell in the given rows and columns
+     *
+     * @param clearedRows mask of the rows to empty, bit y for row y
+     * @param clearedCols mask of the columns to empty, bit x for column x
+     * @return the number of distinct cells covered by the lines
+     */
+    public int clearLines(long clearedRows, long clearedCols) {
+        long lines = clearedRows;
+        while (lines != 0) {
+            int y = Long.numberOfTrailingZeros(lines);
+            lines &= lines - 1;
+            for (int x = 0; x < cols; x++) {
+                set(x, y, 0);
+            }
+        }
+        lines = clearedCols;
+        while (lines != 0) {
+            int x = Long.numberOfTrailingZeros(lines);
+            lines &= lines - 1;
+            for (int y = 0; y < rows; y++) {
+                set(x, y, 0);
+            }
+        }
+        int fullRows = Long.bitCount(clearedRows);
+        int fullCols = Long.bitCount(clearedCols);
+        return fullRows * cols + fullCols * rows - fullRows * fullCols;
+    }
+
+    /**
+     * Copy the contents of another board of the same size into this one
+     *
+     * @param other the board to copy from
+     */
+    public void copyFrom(BitBoard other) {
+        if (other.cols != cols || other.rows != rows) {
+            throw new IllegalArgumentException("Board sizes do not match");
+        }
+        if (listeners.isEmpty()) {
+            System.arraycopy(other.rowBits, 0, rowBits, 0, rows);
+            System.arraycopy(other.colours, 0, colours, 0, colours.length);
+            System.arraycopy(other.rowCounts, 0, rowCounts, 0, rows);
+            System.arraycopy(other.colCounts, 0, colCounts, 0, cols);
+            hash = other.hash;
+            version++;
+            return;
+        }
+        for (int y = 0; y < rows; y++) {
+            for (int x = 0; x < cols; x++) {
+                set(x, y, other.colours[y * cols + x]);
+            }
+        }
+    }
+
+    /**
+     * Copy the value of every cell, row by row
+     *
+     * @return a new array holding the value of cell (x, y) at index y * cols + x
+     */
+    public byte[] copyCells() {
+        return colours.clone();
+    }
+
+    /**
+     * Add a listener to be told whenever a cell changes value
+     *
+     * @param listener listener to add
+     */
+    public void addCellChangedListener(CellChangedListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Remove a previously added cell listener
+     *
+     * @param listener listener to remove
+     */
+    public void removeCellChangedListener(CellChangedListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Get the Zobrist hash of the filled cells. Two boards of the same size with the same cells filled have the same
+     * hash.
+     *
+     * @return the hash
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * Get the number of columns in this board
+     *
+     * @return number of columns
+     */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Get the number of rows in this board
+     *
+     * @return number of rows
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Return a string representation of this board, one line per row
+     *
+     * @return string representation
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (int y = 0; y < rows; y++) {
+            builder.append(Arrays.toString(Arrays.copyOfRange(colours, y * cols, (y + 1) * cols))).append('\n');
+        }
+        return builder.toString();
+    }
+}
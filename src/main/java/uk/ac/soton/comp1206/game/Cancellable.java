@@ -0,0 +1,21 @@
+package uk.ac.soton.comp1206.game;
+
+/**
+ * A handle to a task scheduled to run later, which can stop it from running
+ */
+public interface Cancellable {
+
+    /**
+     * Stop the task from running, if it has not run already
+     *
+     * @return true if the task was cancelled
+     */
+    boolean cancel();
+
+    /**
+     * Check whether the task was cancelled
+     *
+     * @return true if cancelled
+     */
+    boolean isCancelled();
+}
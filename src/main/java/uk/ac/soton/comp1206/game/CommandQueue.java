@@ -0,0 +1,212 @@
+package uk.ac.soton.comp1206.game;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * The CommandQueue makes sure all changes to a game are applied by one writer, in the order they were asked for.
+ * <p>
+ * Player input, timer expiry and network messages are all submitted as commands from whichever thread they arrive on.
+ * The commands are then run one after another by the owner of the queue. Everything waiting is run in one batch, after
+ * which the afterBatch hook is called once, for example to publish a snapshot of the game to the UI.
+ * <p>
+ * The owner is whatever the executor runs the batches on. With the JavaFX thread as the owner, commands submitted on
+ * the JavaFX thread itself run straight away. With a direct executor, whichever thread finds the queue idle runs the
+ * batch while others just add to it without waiting, so there is still only ever one writer at a time. A submit which
+ * finds another thread draining returns straight away, and that thread runs the command before it lets go.
+ */
+public class CommandQueue {
+
+    private static final Logger logger = LogManager.getLogger(CommandQueue.class);
+
+    /**
+     * Commands waiting to be run
+     */
+    private final Queue<Runnable> commands = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Set while a batch is scheduled or running
+     */
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+    /**
+     * Runs batches on the owner
+     */
+    private final Executor owner;
+
+    /**
+     * Checks whether the current thread is the owner thread, so commands can be run straight away
+     */
+    private final BooleanSupplier onOwnerThread;
+
+    /**
+     * Set while a thread is running a batch, so submitters never wait on a lock
+     */
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+
+    /**
+     * The thread running a batch right now, if any
+     */
+    private volatile Thread drainingThread;
+
+    /**
+     * Called once after each batch of commands
+     */
+    private Runnable afterBatch;
+
+    /**
+     * The number of batches run so far
+     */
+    private long batches;
+
+    /**
+     * The number of commands run so far
+     */
+    private long commandsRun;
+
+    /**
+     * Create a new command queue
+     *
+     * @param owner         runs batches of commands on the owner
+     * @param onOwnerThread checks whether the current thread is the owner thread
+     */
+    public CommandQueue(Executor owner, BooleanSupplier onOwnerThread) {
+        this.owner = owner;
+        this.onOwnerThread = onOwnerThread;
+    }
+
+    /**
+     * Create a command queue without a fixed owner thread: batches run on whichever thread finds the queue idle
+     *
+     * @return the command queue
+     */
+    public static CommandQueue direct() {
+        return new CommandQueue(Runnable::run, () -> false);
+    }
+
+    /**
+     * Submit a command to be run by the owner
+     *
+     * @param command the command
+     */
+    public void submit(Runnable command) {
+        commands.add(command);
+        if (drainingThread == Thread.currentThread()) {
+            //Submitted from inside a command, the running batch will pick it up
+            return;
+        }
+        if (onOwnerThread.getAsBoolean()) {
+            drain();
+        } else if (scheduled.compareAndSet(false, true)) {
+            owner.execute(this::scheduledDrain);
+        }
+    }
+
+    /**
+     * Submit a command and wait for its result. On the owner thread, or from inside another command, it runs straight
+     * away after anything already waiting.
+     *
+     * @param command the command
+     * @param <T>     the type of the result
+     * @return the result of the command
+     */
+    public <T> T call(Supplier<T> command) {
+        if (drainingThread == Thread.currentThread()) {
+            return command.get();
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        submit(() -> {
+            try {
+                result.complete(command.get());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result.join();
+    }
+
+    /**
+     * Run a batch handed to the owner executor
+     */
+    private void scheduledDrain() {
+        //Clear the flag first, so anything submitted from now on either makes this batch or schedules another
+        scheduled.set(false);
+        drain();
+    }
+
+    /**
+     * Run every waiting command, then call the afterBatch hook. If another thread is already draining, leave the
+     * commands to it.
+     */
+    private void drain() {
+        if (drainingThread == Thread.currentThread()) return;
+
+        //Check again after letting go, in case a command arrived just as the last batch finished
+        while (!commands.isEmpty() && draining.compareAndSet(false, true)) {
+            drainingThread = Thread.currentThread();
+            try {
+                runBatch();
+            } finally {
+                drainingThread = null;
+                draining.set(false);
+            }
+        }
+    }
+
+    /**
+     * Run commands until none are waiting, then call the afterBatch hook
+     */
+    private void runBatch() {
+        int run = 0;
+        Runnable command;
+        while ((command = commands.poll()) != null) {
+            try {
+                command.run();
+            } catch (Throwable e) {
+                logger.error("Command failed", e);
+            }
+            run++;
+        }
+        if (run > 0) {
+            batches++;
+            commandsRun += run;
+            if (afterBatch != null) {
+                afterBatch.run();
+            }
+        }
+    }
+
+    /**
+     * Set the hook called once after each batch of commands
+     *
+     * @param afterBatch the hook
+     */
+    public void setAfterBatch(Runnable afterBatch) {
+        this.afterBatch = afterBatch;
+    }
+
+    /**
+     * Get the number of batches run so far
+     *
+     * @return batches
+     */
+    public long getBatches() {
+        return batches;
+    }
+
+    /**
+     * Get the number of commands run so far
+     *
+     * @return commands
+     */
+    public long getCommandsRun() {
+        return commandsRun;
+    }
+}
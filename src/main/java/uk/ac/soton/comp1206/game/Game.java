@@ -1,10 +1,9 @@
 package uk.ac.soton.comp1206.game;
 
-import java.util.HashSet;
-import java.util.Random;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import javafx.application.Platform;
 import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.SimpleIntegerProperty;
@@ -12,16 +11,23 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import uk.ac.soton.comp1206.Multimedia;
 import uk.ac.soton.comp1206.component.GameBlock;
-import uk.ac.soton.comp1206.component.GameBlockCoordinate;
 import uk.ac.soton.comp1206.event.FollowingPieceListener;
 import uk.ac.soton.comp1206.event.GameLoopListener;
 import uk.ac.soton.comp1206.event.GameOverListener;
 import uk.ac.soton.comp1206.event.LineClearedListener;
 import uk.ac.soton.comp1206.event.NextPieceListener;
+import uk.ac.soton.comp1206.event.SnapshotListener;
 
 /**
- * The Game class handles the main logic, state and properties of the TetrECS game. Methods to manipulate the game state
+ * The Game class handles the state, properties and timing of the TetrECS game. Methods to manipulate the game state
  * and to handle actions made by the player should take place inside this class.
+ * <p>
+ * The rules themselves live in a GameCore, which has no JavaFX or sound in it. The Game adapts it for display: it
+ * mirrors the core's state into properties, plays sounds for its events and runs the timer.
+ * <p>
+ * Player input, the timer and network messages never touch the core directly. They are submitted to a CommandQueue
+ * and applied in order by its owner, the JavaFX thread when there is one. After each batch the state is published as a
+ * GameSnapshot, which the getters and properties read from.
  */
 public class Game {
 
@@ -38,33 +44,46 @@ public class Game {
     protected final int cols;
 
     /**
-     * The grid model linked to the game
+     * The rules and state of the game
+     */
+    protected final GameCore core;
+
+    /**
+     * Deals the pieces of this game
+     */
+    protected final PieceSequence pieces;
+
+    /**
+     * The grid model linked to the game, a view over the core's board
      */
     protected final Grid grid;
 
     /**
-     *represents current piece that will be played
-      */
-    protected GamePiece currentPiece;
+     * Applies every change to the game, one at a time on a single thread
+     */
+    protected final CommandQueue commands;
+
+    /**
+     * The state of the game as of the last batch of commands
+     */
+    private volatile GameSnapshot snapshot;
+
     /**
-     * represents the next piece that will be played
+     * Where the moves of this game are recorded, or null before the game starts or if it is not being recorded
      */
-    protected GamePiece followingPiece;
+    private MoveJournal journal;
+
     /**
-     * sets the points per stage
+     * The directory the journal is written to, or null to not record the game. Off unless configured.
      */
-    private static final int POINTS_PER_LEVEL = 1000;
+    private Path journalDirectory = MoveJournal.configuredDirectory();
+
     protected NextPieceListener nextPieceListener;
     private FollowingPieceListener followingPieceListener;
-    private LineClearedListener lineClearedListener = null;
+    private SnapshotListener snapshotListener;
     protected GameLoopListener gameLoopListener;
     protected GameOverListener gameOverListener;
 
-    /**
-     * flag to indicate whether a line is cleared or not
-      */
-    private boolean swoosh = false;
-
 
     /**
      * integer Property to represent the score and be listened to when it changes
@@ -77,7 +96,7 @@ public class Game {
     /**
      * integer Property to represent the lives and be listened to when it changes
      */
-    private final IntegerProperty lives = new SimpleIntegerProperty(3);
+    private final IntegerProperty lives = new SimpleIntegerProperty(GameCore.STARTING_LIVES);
     /**
       * integer Property to represent the multiplier and be listened to when it changes
       */
@@ -88,7 +107,7 @@ public class Game {
       * @return current score
      */
     public final int getScore() {
-        return score.get();
+        return snapshot.getScore();
     }
 
     /**
@@ -96,7 +115,7 @@ public class Game {
       * @param value: new score value
      */
     public final void setScore(int value) {
-        score.set(value);
+        commands.submit(() -> core.setScore(value));
     }
 
     /**
@@ -113,7 +132,7 @@ public class Game {
      * @return current Level
      */
     public final int getLevel() {
-        return level.get();
+        return snapshot.getLevel();
     }
 
     /**
@@ -121,7 +140,7 @@ public class Game {
      * @param value: new Level
      */
     public final void setLevel(int value) {
-        level.set(value);
+        commands.submit(() -> core.setLevel(value));
     }
 
     /**
@@ -138,7 +157,7 @@ public class Game {
      * @return current Lives
      */
     public final int getLives() {
-        return lives.get();
+        return snapshot.getLives();
     }
 
     /**
@@ -146,7 +165,7 @@ public class Game {
      * @param value:new Lives
      */
     public final void setLives(int value) {
-        lives.set(value);
+        commands.submit(() -> core.setLives(value));
     }
 
     /**
@@ -163,7 +182,7 @@ public class Game {
       * @return current multiplier
      */
     public final int getMultiplier() {
-        return multiplier.get();
+        return snapshot.getMultiplier();
     }
 
     /**
@@ -171,7 +190,7 @@ public class Game {
      * @param value:new multiplier
      */
     public final void setMultiplier(int value) {
-        multiplier.set(value);
+        commands.submit(() -> core.setMultiplier(value));
     }
 
     /**
@@ -184,10 +203,30 @@ public class Game {
     }
 
     /**
-     * Used to execute the loop within a specific timeZone
-      */
-    private ScheduledExecutorService executorService =
-        Executors.newSingleThreadScheduledExecutor();
+     * The clock used to time the loop
+     */
+    protected final GameClock clock;
+
+    /**
+     * The pending run of the game loop, cancelled when the loop is reset or stopped
+     */
+    private Cancellable loopTimeout;
+
+    /**
+     * When the pending run of the game loop is due, on the game's clock, and how long it was scheduled for
+     */
+    private volatile long loopDeadline;
+    private volatile int loopDelay;
+
+    /**
+     * Whether the game loop has been stopped for good
+     */
+    private volatile boolean loopStopped = false;
+
+    /**
+     * Counts every time the loop is scheduled, so a timer which fired just before being reset can be ignored
+     */
+    private long loopGeneration = 0;
     protected Runnable gameLoop;
 
 
@@ -198,11 +237,151 @@ public class Game {
      * @param rows number of rows
      */
     public Game(int cols, int rows) {
+        this(cols, rows, GameClock.realTime());
+    }
+
+    /**
+     * Create a new game with the specified rows and columns, timed by the given clock. Creates a corresponding grid
+     * model.
+     *
+     * @param cols  number of columns
+     * @param rows  number of rows
+     * @param clock the clock timing the game loop
+     */
+    public Game(int cols, int rows, GameClock clock) {
+        this(cols, rows, clock, new PieceSequence());
+    }
+
+    /**
+     * Create a new game with the specified rows and columns, timed by the given clock and dealt pieces from the given
+     * sequence. Games given sequences with the same seed are dealt the same pieces.
+     *
+     * @param cols   number of columns
+     * @param rows   number of rows
+     * @param clock  the clock timing the game loop
+     * @param pieces deals the pieces
+     */
+    public Game(int cols, int rows, GameClock clock, PieceSequence pieces) {
         this.cols = cols;
         this.rows = rows;
+        this.clock = clock;
+        this.pieces = pieces;
+
+        //Create the rules, taking new pieces from spawnPiece, and a grid model to display its board
+        this.core = new GameCore(cols, rows, this::spawnPiece);
+        this.grid = new Grid(core.getBoard());
+        core.setOnGameEvent(this::handleGameEvent);
 
-        //Create a new grid model to represent the game state
-        this.grid = new Grid(cols, rows);
+        //A game built on the JavaFX thread is owned by it, otherwise commands run on whichever thread submits them
+        if (Platform.isFxApplicationThread()) {
+            this.commands = new CommandQueue(Platform::runLater, Platform::isFxApplicationThread);
+        } else {
+            this.commands = CommandQueue.direct();
+        }
+        this.snapshot = core.snapshot();
+        commands.setAfterBatch(this::publishSnapshot);
+    }
+
+    /**
+     * Take a snapshot of the core after a batch of commands and show it: update the properties and tell the listeners
+     * about any pieces which changed
+     */
+    private void publishSnapshot() {
+        GameSnapshot previous = snapshot;
+        GameSnapshot current = core.snapshot();
+        snapshot = current;
+
+        score.set(current.getScore());
+        level.set(current.getLevel());
+        lives.set(current.getLives());
+        multiplier.set(current.getMultiplier());
+        if (current.getCurrentPiece() != previous.getCurrentPiece()) {
+            triggerNextPieceListener(current.getCurrentPiece());
+        }
+        if (current.getFollowingPiece() != previous.getFollowingPiece()) {
+            triggerFollowingPieceListener(current.getFollowingPiece());
+        }
+        if (snapshotListener != null) {
+            snapshotListener.snapshotPublished(current);
+        }
+    }
+
+    /**
+     * Reflect an event from the core by playing the matching sound. Changes to the state are shown once the whole batch
+     * of commands has run, by publishing a snapshot.
+     *
+     * @param event the event raised by the core
+     */
+    protected void handleGameEvent(GameEvent event) {
+        switch (event) {
+            case PIECE_PLACED -> Multimedia.playAudio("place.wav");
+            case LINES_CLEARED -> Multimedia.playAudio("clear.wav");
+            case PLACEMENT_FAILED, PURCHASE_FAILED -> Multimedia.playAudio("fail.wav");
+            case PIECE_ROTATED -> Multimedia.playAudio("rotate.wav");
+            case LEVEL_UP -> {
+                Multimedia.playAudio("level.wav");
+                logger.info("Level updated");
+            }
+            case LIFE_GAINED -> Multimedia.playAudio("lifegain.wav");
+            case LIFE_LOST -> Multimedia.playAudio("lifelose.wav");
+            case BOARD_CLEARED -> Multimedia.playAudio("explode.wav");
+            case STUCK -> {
+                logger.info("No piece fits anywhere");
+                //Runs once the command which found the player stuck has finished
+                commands.submit(this::stuckPenaltyApplied);
+            }
+            //Runs once the command which ended the game has finished
+            case GAME_OVER -> commands.submit(this::endGame);
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Give the piece dealt by a stuck penalty a full timer, the same as after a timeout, if the game carries on
+     */
+    private void stuckPenaltyApplied() {
+        if (core.isGameOver()) return;
+        resetGameLoop();
+        if (gameLoopListener != null) {
+            gameLoopListener.onGameLoop();
+        }
+    }
+
+    /**
+     * Get the rules and state behind this game
+     *
+     * @return the game core
+     */
+    public GameCore getCore() {
+        return core;
+    }
+
+    /**
+     * Get the queue every change to this game goes through
+     *
+     * @return the command queue
+     */
+    public CommandQueue getCommands() {
+        return commands;
+    }
+
+    /**
+     * Get the clock timing this game
+     *
+     * @return the clock
+     */
+    public GameClock getClock() {
+        return clock;
+    }
+
+    /**
+     * Get the state of the game as of the last batch of commands
+     *
+     * @return the latest snapshot
+     */
+    public GameSnapshot getSnapshot() {
+        return snapshot;
     }
 
 
@@ -219,11 +398,54 @@ public class Game {
      */
     public void initialiseGame() {
         logger.info("Initialising game");
-        currentPiece = spawnPiece();
-        followingPiece = spawnPiece();
+        commands.submit(this::openJournal);
+        commands.submit(core::start);
         startGameLoop();
     }
 
+    /**
+     * Start recording the moves of this game, if it has a journal directory
+     */
+    protected void openJournal() {
+        if (journalDirectory == null || journal != null) return;
+        try {
+            journal = MoveJournal.create(journalDirectory, pieces, cols, rows, core.getStuckPolicy(),
+                clock::millis);
+            core.setOnMoveListener(journal);
+            logger.info("Recording game to {}", journal.getFile());
+        } catch (IOException e) {
+            logger.error("Could not start journal, game will not be recorded: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Stop recording the moves of this game
+     */
+    protected void closeJournal() {
+        if (journal != null) {
+            core.setOnMoveListener(null);
+            journal.close();
+        }
+    }
+
+    /**
+     * Set the directory the journal of this game is written to. Must be called before the game starts.
+     *
+     * @param directory the directory, or null to not record the game
+     */
+    public void setJournalDirectory(Path directory) {
+        this.journalDirectory = directory;
+    }
+
+    /**
+     * Get the journal recording this game
+     *
+     * @return the journal, or null if the game is not being recorded
+     */
+    public MoveJournal getJournal() {
+        return journal;
+    }
+
     /**
      * Handles what should happen when a particular block is clicked
      *checks whether a piece can be played
@@ -231,29 +453,17 @@ public class Game {
      * @param gameBlock the block that was clicked
      */
     public boolean blockClicked(GameBlock gameBlock) {
-        //Get the position of this block
-        int x = gameBlock.getX();
-        int y = gameBlock.getY();
-
-        if (grid.canPlayPiece(currentPiece, x, y)) {
-
-            grid.playPiece(currentPiece, x, y);
-
-            afterPiece(); //checks for full lines after playing the piece
-            if (swoosh) {
-                Multimedia.playAudio("clear.wav");
-            } else {
-                Multimedia.playAudio("place.wav");
-            }
-            nextPiece(); //gets the next piece
-            return true;
-        } else {
-            Multimedia.playAudio("fail.wav");
-            logger.info("Piece cannot be played at the specified at " + x + ", " + y);
-            return false;
-        }
-
+        return blockClicked(gameBlock.getX(), gameBlock.getY());
+    }
 
+    /**
+     * Try to play the current piece centred on the given position
+     * @param x column
+     * @param y row
+     * @return true if the piece was played
+     */
+    public boolean blockClicked(int x, int y) {
+        return commands.call(() -> core.playPiece(x, y));
     }
 
     /**
@@ -284,15 +494,35 @@ public class Game {
     }
 
     /**
-     * gets a new piece to place
+     * gets a new piece to place from the game's piece sequence
      * <p>
      * new piece is returned @return
      */
     public GamePiece spawnPiece() {
-        logger.info("single player");
+        return pieces.next();
+    }
+
+    /**
+     * Get the sequence dealing the pieces of this game
+     *
+     * @return the piece sequence
+     */
+    public PieceSequence getPieceSequence() {
+        return pieces;
+    }
 
-        Random random = new Random();
-        return GamePiece.createPiece(random.nextInt(15));
+    /**
+     * Look at the pieces which will be dealt after the following piece, without dealing them
+     *
+     * @param count the most pieces to look at
+     * @return the upcoming pieces in order, as many as are known up to count
+     */
+    public List<GamePiece> peekPieces(int count) {
+        List<GamePiece> upcoming = new ArrayList<>();
+        for (int i = 0; i < count && i < pieces.getLookAhead(); i++) {
+            upcoming.add(pieces.peek(i));
+        }
+        return upcoming;
     }
 
     /**
@@ -300,21 +530,7 @@ public class Game {
      * triggers the nextPieceListeners to display the scene on the UI
      */
     public void nextPiece() {
-        // Makes the following piece the current piece
-        currentPiece = followingPiece;
-
-        // Get a new piece to become the new following piece
-        GamePiece newFollowing = spawnPiece();
-
-        // Update the followingPiece reference to point to the new piece
-        followingPiece = newFollowing;
-
-        // Trigger the listener to update the main piece board with the new current piece
-        triggerNextPieceListener(currentPiece);
-
-        // Trigger another listener with the new following piece
-        triggerFollowingPieceListener(newFollowing);
-
+        commands.submit(core::nextPiece);
     }
 
     /**
@@ -322,15 +538,7 @@ public class Game {
      * Triggers listener to display the change in the UI
      */
     public void swapCurrentPiece() {
-        if (currentPiece != null && followingPiece != null) {
-            GamePiece temp = currentPiece;
-            currentPiece = followingPiece;
-            followingPiece = temp;
-            logger.info("swap method called");
-            // Update the listeners to reflect the change in the UI
-            triggerNextPieceListener(currentPiece);
-            triggerFollowingPieceListener(followingPiece);
-        }
+        commands.submit(core::swapCurrentPiece);
     }
 
     /**
@@ -339,7 +547,7 @@ public class Game {
      * @return currentPiece
      */
     public GamePiece getCurrentPiece() {
-        return currentPiece;
+        return snapshot.getCurrentPiece();
     }
 
     /**
@@ -348,7 +556,7 @@ public class Game {
      * @return followingPiece
      */
     public GamePiece getFollowingPiece() {
-        return followingPiece;
+        return snapshot.getFollowingPiece();
     }
 
 
@@ -357,14 +565,7 @@ public class Game {
      * listener triggered to display change
      */
     public void rotateCurrentPiece() {
-
-        if (currentPiece != null) {
-            currentPiece.rotate();
-            Multimedia.playAudio("rotate.wav");
-            logger.info("piece rotated");
-        }
-        triggerNextPieceListener(currentPiece);
-        logger.info("rotate method called");
+        commands.submit(core::rotateCurrentPiece);
     }
 
     /**
@@ -372,127 +573,44 @@ public class Game {
      * listener triggered to display change in UI
      */
     public void rotateCurrentPieceCounterClockwise() {
-        if (currentPiece != null) {
-
-            currentPiece.rotateCounterClockwise();
-            Multimedia.playAudio("rotate.wav");
-            triggerNextPieceListener(currentPiece);
-            logger.info(" counter clockwise rotate method called");
-        }
+        commands.submit(core::rotateCurrentPieceCounterClockwise);
     }
 
     /**
      * increases the level based on the players score(every 1000 points)
      */
     public void upgradeLevel() {
-        int newLevel = getScore() / POINTS_PER_LEVEL; //update level bsaed on the score
-        if (newLevel != getLevel()) {
-            setLevel(newLevel);
-            Multimedia.playAudio("level.wav");
-            logger.info("Level updated");
-        }
+        commands.submit(core::upgradeLevel);
     }
 
     /**
      * method used to grant a life in singlePlayer mode
      */
     public void increaseLives() {
-        if (score.get() >= 200) {
-            lives.set(lives.get() + 1);
-            setScore(score.get() - 200);
-            Multimedia.playAudio("lifegain.wav");
-
-        } else {
-            Multimedia.playAudio("fail.wav");
-
-        }
+        commands.submit(core::increaseLives);
     }
 
     /**
      * Method that skips the current piece for 50 Score
       */
     public void skipPiece() {
-
-        if (score.get() >= 50) {
-            nextPiece();
-            score.set(score.get() - 50);
-
-        }else {
-            Multimedia.playAudio("fail.wav");
-        }
-
+        commands.submit(core::skipPiece);
     }
 
     /**
      * method used to clear the board
       */
     public void clearBoard(){
-        if (score.get() >= 300){
-            grid.clearGrid();
-            score.set(score.get()-300);
-            Multimedia.playAudio("explode.wav");
-        }else {
-            Multimedia.playAudio("fail.wav");
-        }
+        commands.submit(core::clearBoard);
     }
 
 
     /**
-     * Method used to check for full lines (either vertical or horizontal)
+     * Method used to check for full lines (either vertical or horizontal) touched by the last piece played
      * clears any lines if they exist
      */
     public void afterPiece() {
-
-        swoosh = false;
-        HashSet<GameBlockCoordinate> blocksToClear = new HashSet<>();
-        int numLines = 0;
-
-        for (int row = 0; row < getRows(); row++) { //checks for full lines
-            boolean fullRow = true;
-            for (int col = 0; col < getCols(); col++) {
-                if (grid.get(col, row) == 0) {
-                    fullRow = false;
-                    break;
-                }
-            }
-            if (fullRow) { //if there is a full row it adds the blocks of the line that need to be cleared in the set
-                for (int col = 0; col < getCols(); col++) {
-                    blocksToClear.add(new GameBlockCoordinate(col, row));
-                }
-                logger.info("Full row found and will be cleared: " + row);
-                numLines++;
-            }
-        }
-
-        for (int col = 0; col < getCols(); col++) { //checks for full lines
-            boolean fullCol = true;
-            for (int row = 0; row < getRows(); row++) {
-                if (grid.get(col, row) == 0) {
-                    fullCol = false;
-                    break;
-                }
-            }
-            if (fullCol) { //if there is a full column it adds the blocks of the line that need to be cleared in the set
-                for (int row = 0; row < getRows(); row++) {
-                    blocksToClear.add(new GameBlockCoordinate(col, row));
-                }
-                logger.info("Full column found and will be cleared: " + col);
-                numLines++;
-            }
-
-        }
-        if (!blocksToClear.isEmpty()) {
-            // swoosh flag becomes true
-            swoosh = true;
-        }
-        if (lineClearedListener != null) {
-            lineClearedListener.clearLines(blocksToClear);
-        }
-        for (GameBlockCoordinate cord : blocksToClear) { //clears the blocks
-            grid.set(cord.getX(), cord.getY(), 0);
-        }
-        addScore(numLines, blocksToClear.size());
-
+        commands.submit(core::afterPiece);
     }
 
     /**
@@ -503,25 +621,7 @@ public class Game {
      * @param blocksCleared:num of blocks that are cleared
      */
     public void addScore(int linesCleared, int blocksCleared) {
-
-        int points;
-
-        if (linesCleared > 0) {
-
-            points = linesCleared * blocksCleared * 10 * getMultiplier(); //calculate points gained
-            setScore(getScore() + points); //update score
-            logger.info("Score updated. Lines cleared: " + linesCleared + ", Blocks cleared: " +
-                blocksCleared);
-            setMultiplier(getMultiplier() + 1);
-            logger.info("multiplier increased to " + getMultiplier());
-
-        } else {
-            // Reset the multiplier if no lines are cleared
-            setMultiplier(1);
-            logger.info("Multiplier reset to 1");
-        }
-        upgradeLevel();
-
+        commands.submit(() -> core.addScore(linesCleared, blocksCleared));
     }
 
 
@@ -572,7 +672,7 @@ public class Game {
      * @param listener;
      */
     public void setOnLineClearedListener(LineClearedListener listener) {
-        this.lineClearedListener = listener;
+        core.setOnLineClearedListener(listener);
     }
 
     /**
@@ -581,14 +681,25 @@ public class Game {
      * @return the delay
      */
     public int getTimerDelay() {
-        int baseDelay = 12000;
-        int level = getLevel();
-        int delayDecreasePerLevel = 500;
-        int minDelay = 2500;
-        int delay = baseDelay - (level * delayDecreasePerLevel);
+        return core.getTimerDelay();
+    }
 
-        return Math.max(delay, minDelay); // Ensure we don't go below the minimum delay
+    /**
+     * Get how long the pending run of the game loop was scheduled for
+     *
+     * @return the delay in milliseconds of game time
+     */
+    public int getLoopDelay() {
+        return loopDelay;
+    }
 
+    /**
+     * Get how long is left before the game loop next runs, measured on the game's clock
+     *
+     * @return the time left in milliseconds of game time, never less than 0
+     */
+    public long getLoopRemaining() {
+        return Math.max(0, loopDeadline - clock.millis());
     }
 
     /**
@@ -604,8 +715,30 @@ public class Game {
      *
      * @param delay:time to delay
      */
-    protected void scheduleNextLoop(int delay) {
-        executorService.schedule(gameLoop, delay, TimeUnit.MILLISECONDS);
+    protected synchronized void scheduleNextLoop(int delay) {
+        if (loopStopped) return;
+        if (loopTimeout != null) {
+            loopTimeout.cancel(); // Only one run of the loop is ever pending
+        }
+        long generation = ++loopGeneration;
+        loopDelay = delay;
+        loopDeadline = clock.millis() + delay;
+        //The timer only submits the loop, which then runs with every other command
+        loopTimeout = clock.schedule(() -> commands.submit(() -> {
+            if (isCurrentLoop(generation)) {
+                gameLoop.run();
+            }
+        }), delay);
+    }
+
+    /**
+     * Check the loop has not been rescheduled or stopped since the given run was scheduled
+     *
+     * @param generation the generation of the run
+     * @return true if the run is still wanted
+     */
+    private synchronized boolean isCurrentLoop(long generation) {
+        return !loopStopped && generation == loopGeneration;
     }
 
     /**
@@ -614,25 +747,17 @@ public class Game {
     private void gameLoop() {
         // What happens in each loop
         // Lose a life, discard the current piece, reset multiplier, check if game should end
-        setLives(getLives() - 1);
-        Multimedia.playAudio("lifelose.wav");
-        if (getLives() < 0) {
-            logger.info("inside gameLoop 0 lives");
-            endGame();
-        } else {
-            setMultiplier(1);
-            nextPiece();
-
+        if (core.timeout()) {
             logger.info("oops timer to 0");
 
             if (gameLoopListener != null) {
                 gameLoopListener.onGameLoop();
             }
 
-
             // Reschedules the next loop
             scheduleNextLoop(getTimerDelay());
-
+        } else {
+            logger.info("inside gameLoop 0 lives");
         }
 
     }
@@ -649,26 +774,36 @@ public class Game {
         this.gameOverListener = listener;
     }
 
+    /**
+     * sets the listener told about each new snapshot of the game
+     * @param listener;
+     */
+    public void setOnSnapshotListener(SnapshotListener listener) {
+        this.snapshotListener = listener;
+    }
+
     /**
      * method to reset timeLoop when block is placed
      */
     public void resetGameLoop() {
         logger.info("Attempting to reset the game loop");
-        if (executorService != null && !executorService.isShutdown()) {
-            executorService.shutdownNow(); // Immediately stop all currently executing tasks
-            executorService = Executors.newSingleThreadScheduledExecutor();
+        if (gameLoop != null && !loopStopped) {
             scheduleNextLoop(getTimerDelay()); // Reschedule the loop with the current delay
         } else {
-            logger.info("Executor service is null or already shut down.");
+            logger.info("Game loop is not running.");
         }
     }
 
     /**
      * Method used to stop loop when game is done
       */
-    public void stopGameLoop() {
-        if (executorService != null && !executorService.isShutdown()) {
-            executorService.shutdownNow(); // Stop all tasks and interrupt the running tasks
+    public synchronized void stopGameLoop() {
+        if (!loopStopped) {
+            loopStopped = true;
+            if (loopTimeout != null) {
+                loopTimeout.cancel(); // Stop the pending run of the loop
+            }
+            commands.submit(this::closeJournal);
             logger.info("Game loop stopped");
         }
     }
@@ -678,11 +813,11 @@ public class Game {
      * method to handle transitioning to scoreScene after game has ended
      */
     public void endGame() {
-        // Shutdown the scheduled tasks
-        executorService.shutdown();
-        // Notify that the game is over
+        // Stop the scheduled loop
+        stopGameLoop();
+        // Notify that the game is over; the loop runs as a command, so this is already on the owner thread
         if (gameOverListener != null) {
-            Platform.runLater(() -> gameOverListener.gameOver());
+            gameOverListener.gameOver();
         }
     }
 
@@ -0,0 +1,63 @@
+package uk.ac.soton.comp1206.game;
+
+/**
+ * A GameClock is where a game gets its time from: the game loop schedules its timeouts on it and the timer bar shows
+ * the time left on it.
+ * <p>
+ * There are three kinds of clock. A real-time clock follows the wall clock. An accelerated clock runs a given number
+ * of times faster than the wall clock, so whole games can be played out quickly. A manual clock only moves when it is
+ * told to, so tests and simulations can step through timeouts without waiting at all.
+ */
+public interface GameClock {
+
+    /**
+     * Get the time on this clock
+     *
+     * @return the time in milliseconds since the clock started
+     */
+    long millis();
+
+    /**
+     * Get how many milliseconds of game time pass for each millisecond of real time
+     *
+     * @return the rate, or 0 if the clock only moves when told to
+     */
+    double getRate();
+
+    /**
+     * Run a task once after the given amount of game time
+     *
+     * @param task  the task to run
+     * @param delay how long to wait in milliseconds of game time
+     * @return a handle which can cancel the task
+     */
+    Cancellable schedule(Runnable task, long delay);
+
+    /**
+     * Get a clock following the wall clock
+     *
+     * @return the clock
+     */
+    static GameClock realTime() {
+        return new SystemClock(GameScheduler.getShared(), 1);
+    }
+
+    /**
+     * Get a clock running the given number of times faster than the wall clock
+     *
+     * @param rate how many times faster the clock runs
+     * @return the clock
+     */
+    static GameClock accelerated(double rate) {
+        return new SystemClock(GameScheduler.getShared(), rate);
+    }
+
+    /**
+     * Get a clock which only moves when it is advanced
+     *
+     * @return the clock
+     */
+    static ManualClock manual() {
+        return new ManualClock();
+    }
+}
@@ -0,0 +1,672 @@
+package uk.ac.soton.comp1206.game;
+
+import java.util.function.Supplier;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import uk.ac.soton.comp1206.event.GameEventListener;
+import uk.ac.soton.comp1206.event.LineClearedListener;
+import uk.ac.soton.comp1206.event.MoveListener;
+
+/**
+ * The GameCore holds the rules and state of a game of TetrECS: placing pieces, clearing lines, scoring, levels and
+ * lives. It has no JavaFX, sound or timer code in it, so it can be run headless, for example by simulations and bots.
+ * <p>
+ * Anything interested in what happens, such as the Game which displays and times it, is told through plain
+ * GameEvents.
+ * <p>
+ * After every move the core checks whether either piece still fits anywhere, using early-exit sweeps of each piece's
+ * distinct shapes, and if not applies its StuckPolicy straight away instead of leaving the player to wait for the
+ * timer.
+ */
+public class GameCore {
+
+    private static final Logger logger = LogManager.getLogger(GameCore.class);
+
+    /**
+     * sets the points per stage
+     */
+    public static final int POINTS_PER_LEVEL = 1000;
+
+    /**
+     * The lives a player starts with
+     */
+    public static final int STARTING_LIVES = 3;
+
+    /**
+     * The score cost of buying a life
+     */
+    public static final int LIFE_COST = 200;
+
+    /**
+     * The score cost of skipping a piece
+     */
+    public static final int SKIP_COST = 50;
+
+    /**
+     * The score cost of clearing the board
+     */
+    public static final int CLEAR_COST = 300;
+
+    /**
+     * Number of columns
+     */
+    private final int cols;
+
+    /**
+     * Number of rows
+     */
+    private final int rows;
+
+    /**
+     * The board the pieces are played on
+     */
+    private final BitBoard board;
+
+    /**
+     * Where new pieces come from
+     */
+    private final Supplier<GamePiece> pieceSource;
+
+    /**
+     * represents current piece that will be played
+     */
+    private GamePiece currentPiece;
+
+    /**
+     * represents the next piece that will be played
+     */
+    private GamePiece followingPiece;
+
+    private int score = 0;
+    private int level = 0;
+    private int lives = STARTING_LIVES;
+    private int multiplier = 1;
+    private boolean gameOver = false;
+
+    /**
+     * What to do when neither piece fits anywhere
+     */
+    private StuckPolicy stuckPolicy = StuckPolicy.PENALTY;
+
+    private GameEventListener gameEventListener;
+    private LineClearedListener lineClearedListener;
+    private MoveListener moveListener;
+
+    /**
+     * Create a new game core with the specified rows and columns, with randomly chosen pieces from a random seed
+     *
+     * @param cols number of columns
+     * @param rows number of rows
+     */
+    public GameCore(int cols, int rows) {
+        this(cols, rows, new PieceSequence());
+    }
+
+    /**
+     * Create a new game core with the specified rows and columns, taking new pieces from the given source
+     *
+     * @param cols        number of columns
+     * @param rows        number of rows
+     * @param pieceSource supplies each new piece
+     */
+    public GameCore(int cols, int rows, Supplier<GamePiece> pieceSource) {
+        this.cols = cols;
+        this.rows = rows;
+        this.board = new BitBoard(cols, rows);
+        this.pieceSource = pieceSource;
+    }
+
+    /**
+     * Start the game by dealing the current and following pieces
+     */
+    public void start() {
+        setPieces(pieceSource.get(), pieceSource.get());
+    }
+
+    /**
+     * Play the current piece centred on the given position, clear any full lines and move on to the next piece
+     *
+     * @param x column
+     * @param y row
+     * @return true if the piece was played
+     */
+    public boolean playPiece(int x, int y) {
+        if (gameOver || currentPiece == null
+            || !board.play(currentPiece.getShape(), currentPiece.getValue(), x, y)) {
+            logger.debug("Piece cannot be played at {}, {}", x, y);
+            fire(GameEvent.PLACEMENT_FAILED);
+            return false;
+        }
+        move(Move.PLACE, x, y);
+
+        int cleared = afterPiece(); //checks for full lines after playing the piece
+        fire(cleared > 0 ? GameEvent.LINES_CLEARED : GameEvent.PIECE_PLACED);
+        nextPiece(); //gets the next piece
+        checkStuck();
+        return true;
+    }
+
+    /**
+     * Check the rows and columns touched by the last piece for full lines, clear them and score them
+     *
+     * @return the number of lines cleared
+     */
+    public int afterPiece() {
+        long clearedRows = 0;
+        long clearedCols = 0;
+
+        long touchedRows = board.getLastRows();
+        while (touchedRows != 0) {
+            int row = Long.numberOfTrailingZeros(touchedRows);
+            touchedRows &= touchedRows - 1;
+            if (board.isRowFull(row)) {
+                logger.debug("Full row found and will be cleared: {}", row);
+                clearedRows |= 1L << row;
+            }
+        }
+
+        long touchedCols = board.getLastCols();
+        while (touchedCols != 0) {
+            int col = Long.numberOfTrailingZeros(touchedCols);
+            touchedCols &= touchedCols - 1;
+            if (board.isColumnFull(col)) {
+                logger.debug("Full column found and will be cleared: {}", col);
+                clearedCols |= 1L << col;
+            }
+        }
+
+        if (clearedRows == 0 && clearedCols == 0) {
+            addScore(0, 0);
+            return 0;
+        }
+        if (lineClearedListener != null) {
+            lineClearedListener.clearLines(clearedRows, clearedCols);
+        }
+        int numLines = Long.bitCount(clearedRows) + Long.bitCount(clearedCols);
+        int blocksCleared = board.clearLines(clearedRows, clearedCols);
+        addScore(numLines, blocksCleared);
+        return numLines;
+    }
+
+    /**
+     * Calculate the new score after a piece is played, update the multiplier and check the level
+     *
+     * @param linesCleared num of lines cleared
+     * @param blocksCleared num of blocks that are cleared
+     */
+    public void addScore(int linesCleared, int blocksCleared) {
+        if (linesCleared > 0) {
+            score += scoreFor(linesCleared, blocksCleared, multiplier);
+            multiplier++;
+        } else {
+            // Reset the multiplier if no lines are cleared
+            multiplier = 1;
+        }
+        fire(GameEvent.STATS_CHANGED);
+        upgradeLevel();
+    }
+
+    /**
+     * The score for clearing lines at the given multiplier
+     *
+     * @param linesCleared  num of lines cleared
+     * @param blocksCleared num of blocks that are cleared
+     * @param multiplier    the multiplier before the lines were cleared
+     * @return the score gained
+     */
+    public static int scoreFor(int linesCleared, int blocksCleared, int multiplier) {
+        return linesCleared * blocksCleared * 10 * multiplier;
+    }
+
+    /**
+     * increases the level based on the players score(every 1000 points)
+     */
+    public void upgradeLevel() {
+        int newLevel = score / POINTS_PER_LEVEL;
+        if (newLevel != level) {
+            level = newLevel;
+            fire(GameEvent.STATS_CHANGED);
+            fire(GameEvent.LEVEL_UP);
+        }
+    }
+
+    /**
+     * Make the following piece the current piece and take a new following piece
+     */
+    public void nextPiece() {
+        setPieces(followingPiece, pieceSource.get());
+    }
+
+    /**
+     * Swap the current and following pieces
+     */
+    public void swapCurrentPiece() {
+        if (currentPiece != null && followingPiece != null) {
+            move(Move.SWAP, -1, -1);
+            setPieces(followingPiece, currentPiece);
+            fire(GameEvent.PIECES_SWAPPED);
+            checkStuck();
+        }
+    }
+
+    /**
+     * Rotate the current piece clockwise
+     */
+    public void rotateCurrentPiece() {
+        if (currentPiece != null) {
+            currentPiece = currentPiece.rotate();
+            fire(GameEvent.PIECE_ROTATED);
+            fire(GameEvent.CURRENT_PIECE_CHANGED);
+        }
+    }
+
+    /**
+     * Rotate the current piece counter-clockwise
+     */
+    public void rotateCurrentPieceCounterClockwise() {
+        if (currentPiece != null) {
+            currentPiece = currentPiece.rotateCounterClockwise();
+            fire(GameEvent.PIECE_ROTATED);
+            fire(GameEvent.CURRENT_PIECE_CHANGED);
+        }
+    }
+
+    /**
+     * Buy a life for LIFE_COST score
+     *
+     * @return true if the life was bought
+     */
+    public boolean increaseLives() {
+        if (score < LIFE_COST) {
+            fire(GameEvent.PURCHASE_FAILED);
+            return false;
+        }
+        move(Move.BUY_LIFE, -1, -1);
+        lives++;
+        score -= LIFE_COST;
+        fire(GameEvent.STATS_CHANGED);
+        fire(GameEvent.LIFE_GAINED);
+        return true;
+    }
+
+    /**
+     * Skip the current piece for SKIP_COST score
+     *
+     * @return true if the piece was skipped
+     */
+    public boolean skipPiece() {
+        if (score < SKIP_COST) {
+            fire(GameEvent.PURCHASE_FAILED);
+            return false;
+        }
+        move(Move.SKIP, -1, -1);
+        nextPiece();
+        score -= SKIP_COST;
+        fire(GameEvent.STATS_CHANGED);
+        fire(GameEvent.PIECE_SKIPPED);
+        checkStuck();
+        return true;
+    }
+
+    /**
+     * Clear the whole board for CLEAR_COST score
+     *
+     * @return true if the board was cleared
+     */
+    public boolean clearBoard() {
+        if (score < CLEAR_COST) {
+            fire(GameEvent.PURCHASE_FAILED);
+            return false;
+        }
+        move(Move.CLEAR_BOARD, -1, -1);
+        board.clear();
+        score -= CLEAR_COST;
+        fire(GameEvent.STATS_CHANGED);
+        fire(GameEvent.BOARD_CLEARED);
+        return true;
+    }
+
+    /**
+     * Apply the timer running out: lose a life, discard the current piece and reset the multiplier, or end the game if
+     * there are no lives left
+     *
+     * @return true if the game carries on
+     */
+    public boolean timeout() {
+        if (gameOver) return false;
+
+        move(Move.TIMEOUT, -1, -1);
+        if (loseLife()) {
+            checkStuck();
+        }
+        return !gameOver;
+    }
+
+    /**
+     * Lose a life, discard the current piece and reset the multiplier, or end the game if there are no lives left
+     *
+     * @return true if the game carries on
+     */
+    private boolean loseLife() {
+        lives--;
+        fire(GameEvent.STATS_CHANGED);
+        fire(GameEvent.LIFE_LOST);
+        if (lives < 0) {
+            setGameOver();
+            return false;
+        }
+        multiplier = 1;
+        fire(GameEvent.STATS_CHANGED);
+        nextPiece();
+        return true;
+    }
+
+    /**
+     * End the game
+     */
+    private void setGameOver() {
+        gameOver = true;
+        fire(GameEvent.GAME_OVER);
+    }
+
+    /**
+     * Check whether neither the current nor the following piece can be played anywhere on the board in any rotation,
+     * so the only thing left to do is wait for the timer
+     *
+     * @return true if the player is stuck
+     */
+    public boolean isStuck() {
+        return currentPiece != null && !fitsAnywhere(currentPiece)
+            && (followingPiece == null || !fitsAnywhere(followingPiece));
+    }
+
+    /**
+     * Check whether a piece can be played anywhere in any rotation
+     *
+     * @param piece the piece
+     * @return true if it fits somewhere
+     */
+    private boolean fitsAnywhere(GamePiece piece) {
+        for (int shape : piece.getDistinctShapes()) {
+            if (board.canPlayAnywhere(shape)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Apply the stuck policy straight away if the player is stuck, again and again if the next pieces do not fit either
+     */
+    private void checkStuck() {
+        while (stuckPolicy != StuckPolicy.IGNORE && !gameOver && isStuck()) {
+            logger.debug("Neither {} nor {} fits anywhere", currentPiece, followingPiece);
+            fire(GameEvent.STUCK);
+            if (stuckPolicy == StuckPolicy.END_GAME) {
+                setGameOver();
+            } else {
+                loseLife();
+            }
+        }
+    }
+
+    /**
+     * calculates the delay per level
+     *
+     * @return the delay in milliseconds
+     */
+    public int getTimerDelay() {
+        int baseDelay = 12000;
+        int delayDecreasePerLevel = 500;
+        int minDelay = 2500;
+        int delay = baseDelay - (level * delayDecreasePerLevel);
+
+        return Math.max(delay, minDelay); // Ensure we don't go below the minimum delay
+    }
+
+    /**
+     * Get what happens when neither piece fits anywhere
+     *
+     * @return the stuck policy
+     */
+    public StuckPolicy getStuckPolicy() {
+        return stuckPolicy;
+    }
+
+    /**
+     * Set what happens when neither piece fits anywhere. Games recorded under one policy must be replayed under the
+     * same one.
+     *
+     * @param stuckPolicy the stuck policy
+     */
+    public void setStuckPolicy(StuckPolicy stuckPolicy) {
+        this.stuckPolicy = stuckPolicy;
+    }
+
+    /**
+     * Set the current and following pieces directly
+     *
+     * @param current   the new current piece
+     * @param following the new following piece
+     */
+    public void setPieces(GamePiece current, GamePiece following) {
+        currentPiece = current;
+        followingPiece = following;
+        fire(GameEvent.CURRENT_PIECE_CHANGED);
+        fire(GameEvent.FOLLOWING_PIECE_CHANGED);
+    }
+
+    /**
+     * Take a copy of the current state which can be handed to other threads
+     *
+     * @return the snapshot
+     */
+    public GameSnapshot snapshot() {
+        return new GameSnapshot(this);
+    }
+
+    /**
+     * Raise an event to the listener
+     *
+     * @param event the event
+     */
+    private void fire(GameEvent event) {
+        if (gameEventListener != null) {
+            gameEventListener.onGameEvent(event);
+        }
+    }
+
+    /**
+     * Put the game back into the state held by a snapshot of a game of the same size. The piece source is not touched,
+     * so it must already be at the point the snapshot was taken.
+     *
+     * @param snapshot the state to restore
+     */
+    public void restore(GameSnapshot snapshot) {
+        if (snapshot.getCols() != cols || snapshot.getRows() != rows) {
+            throw new IllegalArgumentException("Snapshot is of a different sized game");
+        }
+        for (int y = 0; y < rows; y++) {
+            for (int x = 0; x < cols; x++) {
+                board.set(x, y, snapshot.get(x, y));
+            }
+        }
+        score = snapshot.getScore();
+        level = snapshot.getLevel();
+        lives = snapshot.getLives();
+        multiplier = snapshot.getMultiplier();
+        gameOver = snapshot.isGameOver();
+        fire(GameEvent.STATS_CHANGED);
+        setPieces(snapshot.getCurrentPiece(), snapshot.getFollowingPiece());
+    }
+
+    /**
+     * Tell the move listener about a move, before its effects are applied
+     *
+     * @param move the kind of move
+     * @param x    column the piece was played at, or -1
+     * @param y    row the piece was played at, or -1
+     */
+    private void move(Move move, int x, int y) {
+        if (moveListener != null) {
+            moveListener.moveMade(move, currentPiece, x, y);
+        }
+    }
+
+    /**
+     * Set the listener told about every event
+     *
+     * @param listener the listener
+     */
+    public void setOnGameEvent(GameEventListener listener) {
+        this.gameEventListener = listener;
+    }
+
+    /**
+     * Set the listener told about lines about to be cleared
+     *
+     * @param listener the listener
+     */
+    public void setOnLineClearedListener(LineClearedListener listener) {
+        this.lineClearedListener = listener;
+    }
+
+    /**
+     * Set the listener told about every move which changes the state of the game
+     *
+     * @param listener the listener
+     */
+    public void setOnMoveListener(MoveListener listener) {
+        this.moveListener = listener;
+    }
+
+    /**
+     * Get the board the pieces are played on
+     *
+     * @return the board
+     */
+    public BitBoard getBoard() {
+        return board;
+    }
+
+    /**
+     * Get the piece that will be played next
+     *
+     * @return current piece
+     */
+    public GamePiece getCurrentPiece() {
+        return currentPiece;
+    }
+
+    /**
+     * Get the piece after the current one
+     *
+     * @return following piece
+     */
+    public GamePiece getFollowingPiece() {
+        return followingPiece;
+    }
+
+    /**
+     * Get the score
+     *
+     * @return current score
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Set the score
+     *
+     * @param score new score
+     */
+    public void setScore(int score) {
+        this.score = score;
+        fire(GameEvent.STATS_CHANGED);
+    }
+
+    /**
+     * Get the level
+     *
+     * @return current level
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * Set the level
+     *
+     * @param level new level
+     */
+    public void setLevel(int level) {
+        this.level = level;
+        fire(GameEvent.STATS_CHANGED);
+    }
+
+    /**
+     * Get the lives left
+     *
+     * @return current lives
+     */
+    public int getLives() {
+        return lives;
+    }
+
+    /**
+     * Set the lives left
+     *
+     * @param lives new lives
+     */
+    public void setLives(int lives) {
+        this.lives = lives;
+        fire(GameEvent.STATS_CHANGED);
+    }
+
+    /**
+     * Get the score multiplier
+     *
+     * @return current multiplier
+     */
+    public int getMultiplier() {
+        return multiplier;
+    }
+
+    /**
+     * Set the score multiplier
+     *
+     * @param multiplier new multiplier
+     */
+    public void setMultiplier(int multiplier) {
+        this.multiplier = multiplier;
+        fire(GameEvent.STATS_CHANGED);
+    }
+
+    /**
+     * Check whether the player has run out of lives
+     *
+     * @return true once the game is over
+     */
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    /**
+     * Get the number of columns in this game
+     *
+     * @return number of columns
+     */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Get the number of rows in this game
+     *
+     * @return number of rows
+     */
+    public int getRows() {
+        return rows;
+    }
+}
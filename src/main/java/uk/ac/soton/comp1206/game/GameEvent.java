@@ -0,0 +1,88 @@
+package uk.ac.soton.comp1206.game;
+
+/**
+ * The plain events raised by a GameCore as the rules of the game are applied. Listeners can use these to drive sound,
+ * display and anything else outside of the rules themselves.
+ */
+public enum GameEvent {
+
+    /**
+     * A piece was played without clearing any lines
+     */
+    PIECE_PLACED,
+
+    /**
+     * A piece was played and cleared at least one line
+     */
+    LINES_CLEARED,
+
+    /**
+     * A piece could not be played where the player tried to play it
+     */
+    PLACEMENT_FAILED,
+
+    /**
+     * The current piece was rotated
+     */
+    PIECE_ROTATED,
+
+    /**
+     * The current and following pieces were swapped
+     */
+    PIECES_SWAPPED,
+
+    /**
+     * The current piece changed
+     */
+    CURRENT_PIECE_CHANGED,
+
+    /**
+     * The following piece changed
+     */
+    FOLLOWING_PIECE_CHANGED,
+
+    /**
+     * The score, level, lives or multiplier changed
+     */
+    STATS_CHANGED,
+
+    /**
+     * The level went up
+     */
+    LEVEL_UP,
+
+    /**
+     * A life was bought
+     */
+    LIFE_GAINED,
+
+    /**
+     * A life was lost, when the timer ran out or as the penalty for being stuck
+     */
+    LIFE_LOST,
+
+    /**
+     * The current piece was skipped
+     */
+    PIECE_SKIPPED,
+
+    /**
+     * The board was cleared
+     */
+    BOARD_CLEARED,
+
+    /**
+     * A life, skip or clear could not be bought because the score was too low
+     */
+    PURCHASE_FAILED,
+
+    /**
+     * Neither the current nor the following piece fits anywhere on the board
+     */
+    STUCK,
+
+    /**
+     * The game ended, because the player ran out of lives or got stuck
+     */
+    GAME_OVER
+}
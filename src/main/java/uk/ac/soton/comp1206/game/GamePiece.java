@@ -1,9 +1,15 @@
 package uk.ac.soton.comp1206.game;
 
+import java.util.Arrays;
+
 /**
  * Instances of GamePiece Represents the model of a specific Game Piece with it's block makeup.
  * The GamePiece class also contains a factory for producing a GamePiece of a particular shape, as specified by it's
  * number.
+ * <p>
+ * Every piece in every rotation is built once when the class is loaded and shared from then on, so a GamePiece is just
+ * a (piece number, rotation) pair and can not be changed. Rotating a piece returns the shared piece for the next
+ * rotation, and creating a piece allocates nothing.
  */
 public class GamePiece {
 
@@ -13,154 +19,168 @@ public class GamePiece {
     public static final int PIECES = 15;
 
     /**
-     * The 2D grid representation of the shape of this piece
+     * The number of distinct rotations of each piece
      */
-    private int[][] blocks;
+    public static final int ROTATIONS = 4;
 
     /**
-     * The value of this piece
+     * The name of each piece, by piece number
      */
-    private final int value;
+    private static final String[] NAMES = {
+        "Line", "C", "Plus", "Dot", "Square", "L", "J", "S", "Z", "T", "X", "Corner", "Inverse Corner", "Diagonal",
+        "Double"
+    };
 
     /**
-     * The name of this piece
+     * The shape of each piece in its starting rotation, by piece number
      */
-    private final String name;
+    private static final int[][][] SHAPES = {
+        {{0, 0, 0}, {1, 1, 1}, {0, 0, 0}}, //Line
+        {{0, 0, 0}, {1, 1, 1}, {1, 0, 1}}, //C
+        {{0, 1, 0}, {1, 1, 1}, {0, 1, 0}}, //Plus
+        {{0, 0, 0}, {0, 1, 0}, {0, 0, 0}}, //Dot
+        {{1, 1, 0}, {1, 1, 0}, {0, 0, 0}}, //Square
+        {{0, 0, 0}, {1, 1, 1}, {0, 0, 1}}, //L
+        {{0, 0, 1}, {1, 1, 1}, {0, 0, 0}}, //J
+        {{0, 0, 0}, {0, 1, 1}, {1, 1, 0}}, //S
+        {{1, 1, 0}, {0, 1, 1}, {0, 0, 0}}, //Z
+        {{1, 0, 0}, {1, 1, 0}, {1, 0, 0}}, //T
+        {{1, 0, 1}, {0, 1, 0}, {1, 0, 1}}, //X
+        {{0, 0, 0}, {1, 1, 0}, {1, 0, 0}}, //Corner
+        {{1, 0, 0}, {1, 1, 0}, {0, 0, 0}}, //Inverse Corner
+        {{1, 0, 0}, {0, 1, 0}, {0, 0, 1}}, //Diagonal
+        {{0, 1, 0}, {0, 1, 0}, {0, 0, 0}}  //Double
+    };
 
     /**
-     * Create a new GamePiece of the specified piece number
-     * @param piece piece number
-     * @return the created GamePiece
+     * Every piece in every rotation, indexed by piece number then rotation
      */
-    public static GamePiece createPiece(int piece) {
-        switch (piece) {
-            //Line
-            case 0 -> {
-                int[][] blocks = {{0, 0, 0}, {1, 1, 1}, {0, 0, 0}};
-                return new GamePiece("Line", blocks, 1);
+    private static final GamePiece[][] TABLE = new GamePiece[PIECES][ROTATIONS];
+
+    static {
+        for (int piece = 0; piece < PIECES; piece++) {
+            int value = piece + 1;
+
+            //Use the shape of the block to create a grid with either 0 (empty) or the value of this shape for each block.
+            int[][] blocks = new int[3][3];
+            for (int x = 0; x < 3; x++) {
+                for (int y = 0; y < 3; y++) {
+                    blocks[x][y] = SHAPES[piece][x][y] == 0 ? 0 : value;
+                }
             }
 
-            //C
-            case 1 -> {
-                int[][] blocks = {{0, 0, 0}, {1, 1, 1}, {1, 0, 1}};
-                return new GamePiece("C", blocks, 2);
-            }
-
-            //Plus
-            case 2 -> {
-                int[][] blocks = {{0, 1, 0}, {1, 1, 1}, {0, 1, 0}};
-                return new GamePiece("Plus", blocks, 3);
-            }
-
-            //Dot
-            case 3 -> {
-                int[][] blocks = {{0, 0, 0}, {0, 1, 0}, {0, 0, 0}};
-                return new GamePiece("Dot", blocks, 4);
-            }
-
-            //Square
-            case 4 -> {
-                int[][] blocks = {{1, 1, 0}, {1, 1, 0}, {0, 0, 0}};
-                return new GamePiece("Square", blocks, 5);
-            }
-
-            //L
-            case 5 -> {
-                int[][] blocks = {{0, 0, 0}, {1, 1, 1}, {0, 0, 1}};
-                return new GamePiece("L", blocks, 6);
-            }
-
-            //J
-            case 6 -> {
-                int[][] blocks = {{0, 0, 1}, {1, 1, 1}, {0, 0, 0}};
-                return new GamePiece("J", blocks, 7);
+            for (int rotation = 0; rotation < ROTATIONS; rotation++) {
+                TABLE[piece][rotation] = new GamePiece(piece, rotation, NAMES[piece], blocks, value);
+                blocks = rotated(blocks);
             }
+        }
+    }
 
-            //S
-            case 7 -> {
-                int[][] blocks = {{0, 0, 0}, {0, 1, 1}, {1, 1, 0}};
-                return new GamePiece("S", blocks, 8);
-            }
+    /**
+     * The distinct shape masks of each piece across its rotations, indexed by piece number
+     */
+    private static final int[][] DISTINCT_SHAPES = new int[PIECES][];
 
-            //Z
-            case 8 -> {
-                int[][] blocks = {{1, 1, 0}, {0, 1, 1}, {0, 0, 0}};
-                return new GamePiece("Z", blocks, 9);
-            }
+    static {
+        for (int piece = 0; piece < PIECES; piece++) {
+            DISTINCT_SHAPES[piece] = Arrays.stream(TABLE[piece]).mapToInt(GamePiece::getShape).distinct()
+                .toArray();
+        }
+    }
 
-            //T
-            case 9 -> {
-                int[][] blocks = {{1, 0, 0}, {1, 1, 0}, {1, 0, 0}};
-                return new GamePiece("T", blocks, 10);
-            }
+    /**
+     * The number of this piece
+     */
+    private final int piece;
 
-            //X
-            case 10 -> {
-                int[][] blocks = {{1, 0, 1}, {0, 1, 0}, {1, 0, 1}};
-                return new GamePiece("X", blocks, 11);
-            }
+    /**
+     * How many times this piece has been rotated clockwise from its starting shape
+     */
+    private final int rotation;
 
-            //Corner
-            case 11 -> {
-                int[][] blocks = {{0, 0, 0}, {1, 1, 0}, {1, 0, 0}};
-                return new GamePiece("Corner", blocks, 12);
-            }
+    /**
+     * The 2D grid representation of the shape of this piece
+     */
+    private final int[][] blocks;
 
-            //Inverse Corner
-            case 12 -> {
-                int[][] blocks = {{1, 0, 0}, {1, 1, 0}, {0, 0, 0}};
-                return new GamePiece("Inverse Corner", blocks, 13);
-            }
+    /**
+     * The shape of this piece packed as a 9 bit mask (bit row * 3 + col)
+     */
+    private final int shape;
 
-            //Diagonal
-            case 13 -> {
-                int[][] blocks = {{1, 0, 0}, {0, 1, 0}, {0, 0, 1}};
-                return new GamePiece("Diagonal", blocks, 14);
-            }
+    /**
+     * The value of this piece
+     */
+    private final int value;
 
-            //Double
-            case 14 -> {
-                int[][] blocks = {{0, 1, 0}, {0, 1, 0}, {0, 0, 0}};
-                return new GamePiece("Double", blocks, 15);
-            }
-        }
+    /**
+     * The name of this piece
+     */
+    private final String name;
 
-        //Not a valid piece number
-        throw new IndexOutOfBoundsException("No such piece: " + piece);
+    /**
+     * Get the GamePiece of the specified piece number
+     * @param piece piece number
+     * @return the GamePiece
+     */
+    public static GamePiece createPiece(int piece) {
+        return createPiece(piece, 0);
     }
 
     /**
-     * Create a new GamePiece of the specified piece number and rotation
+     * Get the GamePiece of the specified piece number and rotation
      * @param piece piece number
      * @param rotation number of times to rotate
-     * @return the created GamePiece
+     * @return the GamePiece
      */
     public static GamePiece createPiece(int piece, int rotation) {
-        var newPiece = createPiece(piece);
-
-        newPiece.rotate(rotation);
-        return newPiece;
+        if (piece < 0 || piece >= PIECES) {
+            //Not a valid piece number
+            throw new IndexOutOfBoundsException("No such piece: " + piece);
+        }
+        return TABLE[piece][Math.floorMod(rotation, ROTATIONS)];
     }
 
     /**
-     * Create a new GamePiece with the given name, block makeup and value. Should not be called directly, only via the
-     * factory.
+     * Create a new GamePiece with the given number, rotation, block makeup and value. Should not be called directly,
+     * only when building the table of pieces.
+     * @param piece number of the piece
+     * @param rotation rotation of the piece
      * @param name name of the piece
      * @param blocks block makeup of the piece
      * @param value the value of this piece
      */
-    private GamePiece(String name, int[][] blocks, int value) {
+    private GamePiece(int piece, int rotation, String name, int[][] blocks, int value) {
+        this.piece = piece;
+        this.rotation = rotation;
         this.name = name;
         this.blocks = blocks;
         this.value = value;
 
-        //Use the shape of the block to create a grid with either 0 (empty) or the value of this shape for each block.
-        for(int x = 0; x < blocks.length; x++) {
-            for (int y = 0; y < blocks[x].length; y++) {
-                if(blocks[x][y] == 0) continue;
-                blocks[x][y] = value;
+        int mask = 0;
+        for (int row = 0; row < 3; row++) {
+            for (int col = 0; col < 3; col++) {
+                if (blocks[row][col] != 0) {
+                    mask |= 1 << (row * 3 + col);
+                }
+            }
+        }
+        this.shape = mask;
+    }
+
+    /**
+     * Build a copy of a 3x3 grid rotated clockwise once
+     * @param blocks the grid to rotate
+     * @return the rotated grid
+     */
+    private static int[][] rotated(int[][] blocks) {
+        int[][] rotated = new int[3][3];
+        for (int row = 0; row < 3; row++) {
+            for (int col = 0; col < 3; col++) {
+                rotated[2 - col][row] = blocks[row][col];
             }
         }
+        return rotated;
     }
 
     /**
@@ -172,7 +192,23 @@ public class GamePiece {
     }
 
     /**
-     * Get the block makeup of this piece
+     * Get the number of this piece
+     * @return piece number
+     */
+    public int getPiece() {
+        return piece;
+    }
+
+    /**
+     * Get how many times this piece has been rotated clockwise from its starting shape
+     * @return rotation, 0 to 3
+     */
+    public int getRotation() {
+        return rotation;
+    }
+
+    /**
+     * Get the block makeup of this piece. The grid is shared by every user of this piece and must not be modified.
      * @return 2D grid of the blocks representing the piece shape
      */
     public int[][] getBlocks() {
@@ -180,43 +216,45 @@ public class GamePiece {
     }
 
     /**
-     * Rotate this piece the given number of rotations
-     * @param rotations number of rotations
+     * Get the shape of this piece packed into a 9 bit mask, with bit (row * 3 + col) set for every filled block
+     * @return the shape mask
      */
-    public void rotate(int rotations) {
-        for(int rotated = 0; rotated < rotations; rotated ++) {
-            rotate();
-        }
+    public int getShape() {
+        return shape;
     }
 
     /**
-     * Rotate this piece exactly once by rotating it's 3x3 grid
+     * Get the distinct shape masks of this piece across all its rotations, so a piece whose rotations look alike is
+     * only checked once. The array is shared and must not be changed.
+     * @return the shape masks
      */
-    public void rotate() {
-        int[][] rotated = new int[blocks.length][blocks[0].length];
-        rotated[2][0] = blocks[0][0];
-        rotated[1][0] = blocks[0][1];
-        rotated[0][0] = blocks[0][2];
-
-        rotated[2][1] = blocks[1][0];
-        rotated[1][1] = blocks[1][1];
-        rotated[0][1] = blocks[1][2];
+    public int[] getDistinctShapes() {
+        return DISTINCT_SHAPES[piece];
+    }
 
-        rotated[2][2] = blocks[2][0];
-        rotated[1][2] = blocks[2][1];
-        rotated[0][2] = blocks[2][2];
+    /**
+     * Get this piece rotated the given number of rotations
+     * @param rotations number of rotations
+     * @return the rotated piece
+     */
+    public GamePiece rotate(int rotations) {
+        return TABLE[piece][Math.floorMod(rotation + rotations, ROTATIONS)];
+    }
 
-        blocks = rotated;
+    /**
+     * Get this piece rotated exactly once clockwise
+     * @return the rotated piece
+     */
+    public GamePiece rotate() {
+        return TABLE[piece][(rotation + 1) & 3];
     }
 
     /**
-     *  Rotate this piece 3 times by rotating it's 3x3 grid/creating counter clockwise effect
-      */
-    public void rotateCounterClockwise() {
-        // Rotate counterclockwise by rotating clockwise 3 times
-        for (int i = 0; i < 3; i++) {
-            rotate();
-        }
+     * Get this piece rotated once counter-clockwise
+     * @return the rotated piece
+     */
+    public GamePiece rotateCounterClockwise() {
+        return TABLE[piece][(rotation + 3) & 3];
     }
 
 
@@ -0,0 +1,289 @@
+package uk.ac.soton.comp1206.game;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * The GameScheduler runs delayed tasks, such as the game loop timer, for every game in the JVM on a single daemon
+ * thread.
+ * <p>
+ * It is a hashed timer wheel: time is split into ticks, and each timeout is dropped into the slot of the wheel for the
+ * tick it is due on, along with how many full turns of the wheel it must wait. Scheduling and cancelling are both O(1),
+ * so resetting a timer on every move is cheap. Cancelled timeouts are dropped when the wheel next reaches their slot.
+ * <p>
+ * Tasks run on the scheduler thread and should be short, handing any real work to another thread.
+ */
+public class GameScheduler {
+
+    private static final Logger logger = LogManager.getLogger(GameScheduler.class);
+
+    /**
+     * The scheduler shared by every game
+     */
+    private static final GameScheduler SHARED = new GameScheduler("game-scheduler", 10, 512);
+
+    /**
+     * Length of a tick in nanoseconds
+     */
+    private final long tickNanos;
+
+    /**
+     * The slots of the wheel, each the head of a list of timeouts
+     */
+    private final Timeout[] wheel;
+
+    /**
+     * Mask to turn a tick count into a slot index
+     */
+    private final int mask;
+
+    /**
+     * Timeouts scheduled since the last tick, waiting to be put on the wheel by the scheduler thread
+     */
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The thread turning the wheel
+     */
+    private final Thread worker;
+
+    /**
+     * When the scheduler was created, all deadlines are relative to this
+     */
+    private final long startTime;
+
+    /**
+     * The number of ticks the wheel has turned, only used by the scheduler thread
+     */
+    private long tick;
+
+    /**
+     * Create a new scheduler
+     *
+     * @param name       name of the scheduler thread
+     * @param tickMillis length of a tick in milliseconds
+     * @param slots      number of slots in the wheel, rounded up to a power of two
+     */
+    public GameScheduler(String name, long tickMillis, int slots) {
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        int size = Integer.highestOneBit(Math.max(slots, 1) * 2 - 1);
+        this.wheel = new Timeout[size];
+        this.mask = size - 1;
+        this.startTime = System.nanoTime();
+
+        worker = new Thread(this::run, name);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Get the scheduler shared by every game
+     *
+     * @return the shared scheduler
+     */
+    public static GameScheduler getShared() {
+        return SHARED;
+    }
+
+    /**
+     * Run a task once after the given delay
+     *
+     * @param task  the task to run
+     * @param delay how long to wait
+     * @param unit  the unit of the delay
+     * @return a handle which can cancel the task
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        long deadline = System.nanoTime() - startTime + unit.toNanos(Math.max(delay, 0));
+        Timeout timeout = new Timeout(task, deadline);
+        pending.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Turn the wheel forever, running each timeout as it falls due
+     */
+    private void run() {
+        while (true) {
+            long deadline = waitForNextTick();
+            transferPending();
+            expire(wheel[(int) (tick & mask)], deadline);
+            tick++;
+        }
+    }
+
+    /**
+     * Sleep until the end of the current tick
+     *
+     * @return the time at the end of the tick, relative to startTime
+     */
+    private long waitForNextTick() {
+        long deadline = tickNanos * (tick + 1);
+        while (true) {
+            long now = System.nanoTime() - startTime;
+            long sleep = deadline - now;
+            if (sleep <= 0) {
+                return now;
+            }
+            try {
+                TimeUnit.NANOSECONDS.sleep(sleep);
+            } catch (InterruptedException e) {
+                //The scheduler thread is never stopped, carry on waiting
+            }
+        }
+    }
+
+    /**
+     * Move newly scheduled timeouts onto the wheel
+     */
+    private void transferPending() {
+        Timeout timeout;
+        while ((timeout = pending.poll()) != null) {
+            if (timeout.isCancelled()) continue;
+
+            long dueTick = timeout.deadline / tickNanos;
+            timeout.rounds = (dueTick - tick) / wheel.length;
+
+            //A timeout already overdue goes in the current slot
+            int slot = (int) (Math.max(dueTick, tick) & mask);
+            timeout.next = wheel[slot];
+            if (wheel[slot] != null) {
+                wheel[slot].prev = timeout;
+            }
+            wheel[slot] = timeout;
+            timeout.slot = slot;
+        }
+    }
+
+    /**
+     * Run every timeout in a slot which is due by the given deadline, and drop any cancelled ones
+     *
+     * @param timeout  the first timeout in the slot
+     * @param deadline the end of the current tick
+     */
+    private void expire(Timeout timeout, long deadline) {
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            if (timeout.isCancelled()) {
+                remove(timeout);
+            } else if (timeout.rounds <= 0 && timeout.deadline <= deadline) {
+                remove(timeout);
+                timeout.expire();
+            } else if (timeout.rounds > 0) {
+                timeout.rounds--;
+            }
+            timeout = next;
+        }
+    }
+
+    /**
+     * Unlink a timeout from its slot
+     *
+     * @param timeout the timeout to remove
+     */
+    private void remove(Timeout timeout) {
+        if (timeout.prev != null) {
+            timeout.prev.next = timeout.next;
+        } else {
+            wheel[timeout.slot] = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.prev = timeout.prev;
+        }
+        timeout.prev = null;
+        timeout.next = null;
+    }
+
+    /**
+     * A handle to a task scheduled on a GameScheduler
+     */
+    public static class Timeout implements Cancellable {
+
+        private static final int WAITING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        /**
+         * The task to run
+         */
+        private final Runnable task;
+
+        /**
+         * When the task is due, relative to the scheduler start time
+         */
+        private final long deadline;
+
+        /**
+         * Whether the task is waiting, cancelled or has run
+         */
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+
+        /**
+         * Remaining turns of the wheel before the task is due, only used by the scheduler thread
+         */
+        private long rounds;
+
+        /**
+         * The slot holding this timeout and its neighbours in that slot, only used by the scheduler thread
+         */
+        private int slot;
+        private Timeout prev;
+        private Timeout next;
+
+        /**
+         * Create a new timeout
+         *
+         * @param task     the task to run
+         * @param deadline when the task is due
+         */
+        private Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Stop the task from running, if it has not run already
+         *
+         * @return true if the task was cancelled
+         */
+        @Override
+        public boolean cancel() {
+            return state.compareAndSet(WAITING, CANCELLED);
+        }
+
+        /**
+         * Check whether the task was cancelled
+         *
+         * @return true if cancelled
+         */
+        @Override
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        /**
+         * Check whether the task has run
+         *
+         * @return true if the task has run
+         */
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+
+        /**
+         * Run the task, unless it has been cancelled
+         */
+        private void expire() {
+            if (!state.compareAndSet(WAITING, EXPIRED)) return;
+            try {
+                task.run();
+            } catch (Throwable e) {
+                logger.error("Scheduled task failed", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package uk.ac.soton.comp1206.game;
+
+/**
+ * A GameSnapshot is a copy of the state of a game at one moment, taken by the thread applying commands and handed to
+ * the UI. It can not be changed, so it can be read from any thread.
+ */
+public class GameSnapshot {
+
+    private final int score;
+    private final int level;
+    private final int lives;
+    private final int multiplier;
+    private final boolean gameOver;
+    private final GamePiece currentPiece;
+    private final GamePiece followingPiece;
+
+    /**
+     * Size of the board
+     */
+    private final int cols;
+    private final int rows;
+
+    /**
+     * The value of every cell, row by row
+     */
+    private final byte[] cells;
+
+    /**
+     * The board version the cells were copied from
+     */
+    private final long boardVersion;
+
+    /**
+     * Take a snapshot of a game core
+     *
+     * @param core the core to copy
+     */
+    GameSnapshot(GameCore core) {
+        this.score = core.getScore();
+        this.level = core.getLevel();
+        this.lives = core.getLives();
+        this.multiplier = core.getMultiplier();
+        this.gameOver = core.isGameOver();
+        this.currentPiece = core.getCurrentPiece();
+        this.followingPiece = core.getFollowingPiece();
+
+        BitBoard board = core.getBoard();
+        this.cols = board.getCols();
+        this.rows = board.getRows();
+        this.cells = board.copyCells();
+        this.boardVersion = board.getVersion();
+    }
+
+    /**
+     * Get the score
+     *
+     * @return score
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Get the level
+     *
+     * @return level
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * Get the lives left
+     *
+     * @return lives
+     */
+    public int getLives() {
+        return lives;
+    }
+
+    /**
+     * Get the score multiplier
+     *
+     * @return multiplier
+     */
+    public int getMultiplier() {
+        return multiplier;
+    }
+
+    /**
+     * Check whether the game was over
+     *
+     * @return true if the game was over
+     */
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    /**
+     * Get the piece that was to be played next
+     *
+     * @return current piece
+     */
+    public GamePiece getCurrentPiece() {
+        return currentPiece;
+    }
+
+    /**
+     * Get the piece after the current one
+     *
+     * @return following piece
+     */
+    public GamePiece getFollowingPiece() {
+        return followingPiece;
+    }
+
+    /**
+     * Get the number of columns
+     *
+     * @return number of columns
+     */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Get the number of rows
+     *
+     * @return number of rows
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Get the value of a cell
+     *
+     * @param x column
+     * @param y row
+     * @return the value of the cell
+     */
+    public int get(int x, int y) {
+        return cells[y * cols + x];
+    }
+
+    /**
+     * Build a new board holding the cells of this snapshot, for working out moves without touching the game
+     *
+     * @return the board
+     */
+    public BitBoard toBoard() {
+        BitBoard board = new BitBoard(cols, rows);
+        for (int y = 0; y < rows; y++) {
+            for (int x = 0; x < cols; x++) {
+                board.set(x, y, cells[y * cols + x]);
+            }
+        }
+        return board;
+    }
+
+    /**
+     * Get the board version the cells were copied from
+     *
+     * @return board version
+     */
+    public long getBoardVersion() {
+        return boardVersion;
+    }
+}
@@ -9,8 +9,10 @@ import org.apache.logging.log4j.Logger;
  * The Grid is a model which holds the state of a game board. It is made up of a set of Integer values arranged in a 2D
  * arrow, with rows and columns.
  * <p>
- * Each value inside the Grid is an IntegerProperty can be bound to enable modification and display of the contents of
- * the grid.
+ * The values themselves are stored in a BitBoard, which packs the occupancy of each row into a long so that checking
+ * and placing pieces is cheap. On top of that, each value can be exposed as an IntegerProperty which can be bound to
+ * enable display of the contents of the grid. A headless Grid skips the properties entirely, for simulations that never
+ * display the board.
  * <p>
  * The Grid contains functions related to modifying the model, for example, placing a piece inside the grid.
  * <p>
@@ -29,7 +31,12 @@ public class Grid {
     private final int rows;
 
     /**
-     * The grid is a 2D arrow with rows and columns of SimpleIntegerProperties.
+     * The packed storage holding the value of every block in the grid
+     */
+    private final BitBoard board;
+
+    /**
+     * The grid is a 2D arrow with rows and columns of SimpleIntegerProperties, mirroring the board. Null when headless.
      */
     private final SimpleIntegerProperty[][] grid;
     private static final Logger logger = LogManager.getLogger(Grid.class);
@@ -41,8 +48,33 @@ public class Grid {
      * @param rows number of rows
      */
     public Grid(int cols, int rows) {
-        this.cols = cols;
-        this.rows = rows;
+        this(new BitBoard(cols, rows), true);
+    }
+
+    /**
+     * Create a new Grid displaying an existing board
+     *
+     * @param board the board holding the values of the grid
+     */
+    public Grid(BitBoard board) {
+        this(board, true);
+    }
+
+    /**
+     * Create a new Grid over a board, optionally with a property for every block
+     *
+     * @param board      the board holding the values of the grid
+     * @param observable whether to create the IntegerProperty view
+     */
+    private Grid(BitBoard board, boolean observable) {
+        this.cols = board.getCols();
+        this.rows = board.getRows();
+        this.board = board;
+
+        if (!observable) {
+            grid = null;
+            return;
+        }
 
         //Create the grid itself
         grid = new SimpleIntegerProperty[cols][rows];
@@ -50,38 +82,35 @@ public class Grid {
         //Add a SimpleIntegerProperty to every block in the grid
         for (var y = 0; y < rows; y++) {
             for (var x = 0; x < cols; x++) {
-                grid[x][y] = new SimpleIntegerProperty(0);
+                grid[x][y] = new SimpleIntegerProperty(board.get(x, y));
             }
         }
+
+        //Keep the properties in step with the board
+        board.addCellChangedListener((x, y, value) -> grid[x][y].set(value));
+    }
+
+    /**
+     * Create a new Grid without any IntegerProperties, for use where the grid is never displayed
+     *
+     * @param cols number of columns
+     * @param rows number of rows
+     * @return the headless grid
+     */
+    public static Grid headless(int cols, int rows) {
+        return new Grid(new BitBoard(cols, rows), false);
     }
 
 
     /**
-     * Method used to iterate through the grid to see whether the corresponding places in the games grid are occupied to check if it can place the piece
+     * Method used to check the corresponding places in the games grid are not occupied to check if it can place the piece
      * @param piece (checked if it fits)
      * @param centerX:x coordinate
      * @param centerY@y coordinate
      * @return whether piece can be played(Boolean)
      */
     public boolean canPlayPiece(GamePiece piece, int centerX, int centerY) {
-        int[][] blocks = piece.getBlocks();
-        int centerBlockX = blocks[0].length / 2; //center x value of piece
-        int centerBlockY = blocks.length / 2; //centre y value of piece
-        logger.info("Attempting to place piece");
-        for (int row = 0; row < blocks.length; row++) {
-            for (int col = 0; col < blocks[row].length; col++) {
-                if (blocks[row][col] != 0) {
-                    int gridX = centerX + (col - centerBlockX); // finds the positions of the current piece elements in the grid
-                    int gridY = centerY + (row - centerBlockY);
-
-                    if (gridX < 0 || gridX >= getCols() || gridY < 0 || gridY >= getRows() || get(gridX, gridY) != 0) { //makes sure the piece is not out of bounds
-                        return false;
-                    }
-                }
-            }
-        }
-        logger.info("piece can be played");
-        return true;
+        return board.canPlay(piece.getShape(), centerX, centerY);
     }
 
 
@@ -94,24 +123,33 @@ public class Grid {
      * @param centerY:y coordinate
      */
     public void playPiece(GamePiece piece, int centerX, int centerY) {
-        logger.info("piece placed");
-        if (canPlayPiece(piece, centerX, centerY)) {
-
-            int[][] blocks = piece.getBlocks();
-            int centerBlockX = blocks[0].length / 2;
-            int centerBlockY = blocks.length / 2;
-
-            for (int row = 0; row < blocks.length; row++) {
-                for (int col = 0; col < blocks[row].length; col++) {
-                    if (blocks[row][col] != 0) {
-                        int gridX = centerX + (col - centerBlockX);
-                        int gridY = centerY + (row - centerBlockY);
-
-                        set(gridX, gridY, blocks[row][col]);
-                    }
-                }
+        if (board.play(piece.getShape(), piece.getValue(), centerX, centerY)) {
+            logger.debug("piece placed");
+        }
+    }
+
+    /**
+     * Find every centre position where the piece, in its current rotation, can be played. Computed in one sweep of the
+     * grid and cached until the grid next changes.
+     * @param piece the piece to place
+     * @return mask of the legal centre positions
+     */
+    public PlacementMask legalPlacements(GamePiece piece) {
+        return board.legalPlacements(piece.getShape());
+    }
+
+    /**
+     * Check whether the piece can be played anywhere on the grid in any rotation
+     * @param piece the piece to place
+     * @return true if there is at least one legal placement
+     */
+    public boolean canPlayAnywhere(GamePiece piece) {
+        for (int shape : piece.getDistinctShapes()) {
+            if (board.canPlayAnywhere(shape)) {
+                return true;
             }
         }
+        return false;
     }
 
     /**
@@ -122,6 +160,9 @@ public class Grid {
      * @return the IntegerProperty at the given x and y in this grid
      */
     public IntegerProperty getGridProperty(int x, int y) {
+        if (grid == null) {
+            throw new IllegalStateException("Headless grid has no properties");
+        }
         return grid[x][y];
     }
 
@@ -131,9 +172,10 @@ public class Grid {
      * @param x     column
      * @param y     row
      * @param value the new value
+     * @throws IndexOutOfBoundsException if there is no such cell
      */
     public void set(int x, int y, int value) {
-        grid[x][y].set(value);
+        board.set(x, y, value);
     }
 
     /**
@@ -144,13 +186,26 @@ public class Grid {
      * @return the value
      */
     public int get(int x, int y) {
-        try {
-            //Get the value held in the property at the x and y index provided
-            return grid[x][y].get();
-        } catch (ArrayIndexOutOfBoundsException e) {
-            //No such index
-            return -1;
-        }
+        //Get the value held in the board at the x and y index provided, -1 if there is no such index
+        return board.get(x, y);
+    }
+
+    /**
+     * Get the Zobrist hash of the filled cells of this grid
+     *
+     * @return the hash
+     */
+    public long getHash() {
+        return board.getHash();
+    }
+
+    /**
+     * Get the packed board holding the values of this grid
+     *
+     * @return the board
+     */
+    public BitBoard getBoard() {
+        return board;
     }
 
     /**
@@ -176,10 +231,7 @@ public class Grid {
      * method used to clear the board grid
      */
     public void clearGrid(){
-        for (int x = 0; x < this.cols; x++) {
-            for (int y = 0; y < this.rows; y++)
-                this.grid[x][y].set(0);
-        }
+        board.clear();
     }
 
 }
@@ -0,0 +1,172 @@
+package uk.ac.soton.comp1206.game;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A GameClock which only moves when it is advanced. Advancing runs every task falling due, in order of their deadlines,
+ * on the thread doing the advancing, with the clock set to each task's deadline as it runs.
+ */
+public class ManualClock implements GameClock {
+
+    /**
+     * The time on this clock in milliseconds
+     */
+    private long now = 0;
+
+    /**
+     * Counts tasks as they are scheduled, so tasks due at the same time run in the order they were scheduled
+     */
+    private long sequence = 0;
+
+    /**
+     * Tasks waiting for their deadline, earliest first
+     */
+    private final PriorityQueue<Task> tasks = new PriorityQueue<>();
+
+    /**
+     * Get the time on this clock
+     *
+     * @return the time in milliseconds since the clock started
+     */
+    @Override
+    public synchronized long millis() {
+        return now;
+    }
+
+    /**
+     * A manual clock does not move with real time
+     *
+     * @return 0
+     */
+    @Override
+    public double getRate() {
+        return 0;
+    }
+
+    /**
+     * Run a task once the clock has been advanced by the given amount
+     *
+     * @param task  the task to run
+     * @param delay how long to wait in milliseconds of game time
+     * @return a handle which can cancel the task
+     */
+    @Override
+    public synchronized Cancellable schedule(Runnable task, long delay) {
+        Task scheduled = new Task(task, now + Math.max(delay, 0), sequence++);
+        tasks.add(scheduled);
+        return scheduled;
+    }
+
+    /**
+     * Move the clock forward, running every task which falls due
+     *
+     * @param millis how far to move the clock in milliseconds
+     */
+    public void advance(long millis) {
+        long target;
+        synchronized (this) {
+            target = now + Math.max(millis, 0);
+        }
+        Task task;
+        while ((task = nextDue(target)) != null) {
+            task.run();
+        }
+        synchronized (this) {
+            now = Math.max(now, target);
+        }
+    }
+
+    /**
+     * Move the clock straight to the next waiting task and run it
+     *
+     * @return true if a task was run, false if there was nothing waiting
+     */
+    public boolean advanceToNext() {
+        Task task = nextDue(Long.MAX_VALUE);
+        if (task == null) {
+            return false;
+        }
+        task.run();
+        return true;
+    }
+
+    /**
+     * Take the earliest task due by the given time, moving the clock to its deadline. Tasks are run outside the lock,
+     * so they can schedule more tasks.
+     *
+     * @param target the latest deadline to take
+     * @return the task, or null if none are due
+     */
+    private synchronized Task nextDue(long target) {
+        while (!tasks.isEmpty() && tasks.peek().deadline <= target) {
+            Task task = tasks.poll();
+            if (task.isCancelled()) continue;
+            now = Math.max(now, task.deadline);
+            return task;
+        }
+        return null;
+    }
+
+    /**
+     * Get the number of tasks waiting, including cancelled ones not yet dropped
+     *
+     * @return waiting tasks
+     */
+    public synchronized int getPending() {
+        return tasks.size();
+    }
+
+    /**
+     * A task waiting on a manual clock
+     */
+    private static class Task implements Cancellable, Comparable<Task> {
+
+        private static final int WAITING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final Runnable task;
+        private final long deadline;
+        private final long sequence;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+
+        /**
+         * Create a new task
+         *
+         * @param task     the task to run
+         * @param deadline when the task is due
+         * @param sequence the order the task was scheduled in
+         */
+        private Task(Runnable task, long deadline, long sequence) {
+            this.task = task;
+            this.deadline = deadline;
+            this.sequence = sequence;
+        }
+
+        /**
+         * Run the task, unless it has been cancelled
+         */
+        private void run() {
+            if (state.compareAndSet(WAITING, EXPIRED)) {
+                task.run();
+            }
+        }
+
+        @Override
+        public boolean cancel() {
+            return state.compareAndSet(WAITING, CANCELLED);
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        @Override
+        public int compareTo(Task other) {
+            int order = Long.compare(deadline, other.deadline);
+            return order != 0 ? order : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package uk.ac.soton.comp1206.game;
+
+/**
+ * The moves which change the state of a game, as recorded in a move journal. Together with the seed of the piece
+ * sequence these are enough to play a game again exactly.
+ */
+public enum Move {
+
+    /**
+     * The current piece was played
+     */
+    PLACE,
+
+    /**
+     * The current and following pieces were swapped
+     */
+    SWAP,
+
+    /**
+     * The current piece was skipped for score
+     */
+    SKIP,
+
+    /**
+     * The board was cleared for score
+     */
+    CLEAR_BOARD,
+
+    /**
+     * A life was bought for score
+     */
+    BUY_LIFE,
+
+    /**
+     * The timer ran out
+     */
+    TIMEOUT
+}
@@ -0,0 +1,313 @@
+package uk.ac.soton.comp1206.game;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import uk.ac.soton.comp1206.event.MoveListener;
+
+/**
+ * A MoveJournal records every move of a game to a compact binary file, so the game can be studied or played again.
+ * <p>
+ * The file is a 32 byte header followed by fixed 16 byte records, all big-endian:
+ * <pre>
+ * header: int magic, short format, short record size, long seed, byte piece mode, byte cols, byte rows,
+ *         byte stuck policy, int 0, long start time (epoch millis)
+ * record: byte move (Move ordinal + 1), byte piece, byte rotation, byte 0, short x, short y, long game clock millis
+ * </pre>
+ * A record starting with 0 marks the end of the journal.
+ * <p>
+ * The file is memory-mapped in chunks and only ever appended to, so recording a move is a few writes to memory and
+ * never waits on the disk. The operating system writes the mapped pages out in its own time, so a journal survives the
+ * game crashing; it is only forced to disk when closed. The first byte of each record is written last, so a half
+ * written record reads as the end of the journal.
+ * <p>
+ * Journalling is off unless turned on with the tetrecs.journals system property: "on" writes to DEFAULT_DIRECTORY in
+ * the user's home, anything else is taken as the directory to write to. Only the newest MAX_JOURNALS journals are
+ * kept, and a journal stops recording once it reaches MAX_SIZE.
+ */
+public class MoveJournal implements MoveListener, Closeable {
+
+    private static final Logger logger = LogManager.getLogger(MoveJournal.class);
+
+    /**
+     * The system property turning journalling on, and choosing where journals go
+     */
+    public static final String PROPERTY = "tetrecs.journals";
+
+    /**
+     * The directory journals are written to when journalling is simply turned on
+     */
+    public static final Path DEFAULT_DIRECTORY = Paths.get(System.getProperty("user.home"), ".tetrecs", "journals");
+
+    /**
+     * The most journals kept in a directory; the oldest are deleted when a new one is created
+     */
+    public static final int MAX_JOURNALS = 100;
+
+    /**
+     * The largest a journal can grow to in bytes, enough for over a million moves
+     */
+    public static final long MAX_SIZE = 16L * 1024 * 1024;
+
+    /**
+     * The extension of journal files
+     */
+    private static final String EXTENSION = ".tej";
+
+    /**
+     * "TEJ1", the first four bytes of every journal
+     */
+    public static final int MAGIC = 0x54454A31;
+
+    /**
+     * The version of the file format
+     */
+    public static final short FORMAT = 1;
+
+    /**
+     * Size of the header in bytes
+     */
+    public static final int HEADER_SIZE = 32;
+
+    /**
+     * Size of a record in bytes
+     */
+    public static final int RECORD_SIZE = 16;
+
+    /**
+     * The file is mapped this much at a time
+     */
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * The file being written
+     */
+    private final Path file;
+    private final FileChannel channel;
+
+    /**
+     * Where the time of each move comes from
+     */
+    private final LongSupplier clock;
+
+    /**
+     * The mapped chunk being written and its offset in the file
+     */
+    private MappedByteBuffer chunk;
+    private long chunkStart;
+
+    /**
+     * The number of moves recorded
+     */
+    private long records;
+
+    /**
+     * Whether the journal has been closed
+     */
+    private boolean closed;
+
+    /**
+     * Create a new journal file and write its header
+     *
+     * @param file  the file to create, which must not exist
+     * @param seed  the seed of the game's piece sequence
+     * @param mode  how the game's pieces are chosen
+     * @param cols  number of columns
+     * @param rows  number of rows
+     * @param stuck what the game does when neither piece fits anywhere
+     * @param clock where the time of each move comes from
+     * @throws IOException if the file can not be created
+     */
+    public MoveJournal(Path file, long seed, PieceSequence.Mode mode, int cols, int rows, StuckPolicy stuck,
+        LongSupplier clock) throws IOException {
+        this.file = file;
+        this.clock = clock;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        this.chunkStart = 0;
+        this.chunk = channel.map(FileChannel.MapMode.READ_WRITE, 0, CHUNK_SIZE);
+
+        chunk.putInt(MAGIC);
+        chunk.putShort(FORMAT);
+        chunk.putShort((short) RECORD_SIZE);
+        chunk.putLong(seed);
+        chunk.put((byte) mode.ordinal());
+        chunk.put((byte) cols);
+        chunk.put((byte) rows);
+        chunk.put((byte) stuck.ordinal());
+        chunk.putInt(0);
+        chunk.putLong(System.currentTimeMillis());
+    }
+
+    /**
+     * Get the directory journals should be written to, from the tetrecs.journals system property
+     *
+     * @return the directory, or null if journalling is off
+     */
+    public static Path configuredDirectory() {
+        String value = System.getProperty(PROPERTY);
+        if (value == null || value.isBlank() || value.equalsIgnoreCase("off") || value.equalsIgnoreCase("false")) {
+            return null;
+        }
+        if (value.equalsIgnoreCase("on") || value.equalsIgnoreCase("true")) {
+            return DEFAULT_DIRECTORY;
+        }
+        return Paths.get(value);
+    }
+
+    /**
+     * Create a new journal for a game in the given directory, named after when it started and its seed. The oldest
+     * journals in the directory are deleted to make room if needed.
+     *
+     * @param directory the directory to write to, created if needed
+     * @param pieces    the game's piece sequence
+     * @param cols      number of columns
+     * @param rows      number of rows
+     * @param stuck     what the game does when neither piece fits anywhere
+     * @param clock     where the time of each move comes from
+     * @return the journal
+     * @throws IOException if the file can not be created
+     */
+    public static MoveJournal create(Path directory, PieceSequence pieces, int cols, int rows, StuckPolicy stuck,
+        LongSupplier clock) throws IOException {
+        Files.createDirectories(directory);
+        prune(directory, MAX_JOURNALS - 1);
+        String name = String.format("game-%d-%016x" + EXTENSION, System.currentTimeMillis(), pieces.getSeed());
+        return new MoveJournal(directory.resolve(name), pieces.getSeed(), pieces.getMode(), cols, rows, stuck,
+            clock);
+    }
+
+    /**
+     * Delete the oldest journals in a directory until no more than the given number are left. Journals are named
+     * after when they started, so the oldest sort first.
+     *
+     * @param directory the directory
+     * @param keep      the number of journals to keep
+     * @throws IOException if the directory can not be listed
+     */
+    private static void prune(Path directory, int keep) throws IOException {
+        List<Path> journals;
+        try (Stream<Path> files = Files.list(directory)) {
+            journals = files.filter(file -> file.getFileName().toString().endsWith(EXTENSION))
+                .sorted(Comparator.comparing(file -> file.getFileName().toString()))
+                .collect(Collectors.toList());
+        }
+        for (int i = 0; i < journals.size() - keep; i++) {
+            try {
+                Files.delete(journals.get(i));
+            } catch (IOException e) {
+                logger.warn("Could not delete old journal {}: {}", journals.get(i), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Record a move
+     *
+     * @param move  the kind of move
+     * @param piece the current piece when the move was made
+     * @param x     column the piece was played at, or -1
+     * @param y     row the piece was played at, or -1
+     */
+    @Override
+    public void moveMade(Move move, GamePiece piece, int x, int y) {
+        if (closed) return;
+        try {
+            if (!chunk.hasRemaining()) {
+                if (chunkStart + CHUNK_SIZE >= MAX_SIZE) {
+                    logger.warn("Journal {} is full, no more moves will be recorded", file);
+                    close();
+                    return;
+                }
+                nextChunk();
+            }
+            int at = chunk.position();
+            chunk.put(at + 1, (byte) (piece == null ? -1 : piece.getPiece()));
+            chunk.put(at + 2, (byte) (piece == null ? 0 : piece.getRotation()));
+            chunk.put(at + 3, (byte) 0);
+            chunk.putShort(at + 4, (short) x);
+            chunk.putShort(at + 6, (short) y);
+            chunk.putLong(at + 8, clock.getAsLong());
+            //The move goes in last, so the record only counts once it is whole
+            chunk.put(at, (byte) (move.ordinal() + 1));
+            chunk.position(at + RECORD_SIZE);
+            records++;
+        } catch (IOException e) {
+            logger.error("Could not write to journal {}: {}", file, e.getMessage());
+            closed = true;
+        }
+    }
+
+    /**
+     * Map the next chunk, leaving the operating system to write out the last one
+     *
+     * @throws IOException if the file can not be extended
+     */
+    private void nextChunk() throws IOException {
+        chunkStart += CHUNK_SIZE;
+        chunk = channel.map(FileChannel.MapMode.READ_WRITE, chunkStart, CHUNK_SIZE);
+    }
+
+    /**
+     * Flush everything recorded so far to disk
+     */
+    public void flush() {
+        if (!closed) {
+            chunk.force();
+        }
+    }
+
+    /**
+     * Flush the journal, trim the unused end of the file and close it
+     */
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        long length = chunkStart + chunk.position();
+        try {
+            chunk.force();
+            chunk = null;
+            try {
+                channel.truncate(length);
+            } catch (IOException e) {
+                //Some platforms will not shrink a mapped file; the unused end is all zeros, which reads as the end
+                logger.debug("Could not trim journal {}", file);
+            }
+            channel.close();
+            logger.info("Journal {} closed after {} moves", file, records);
+        } catch (IOException e) {
+            logger.error("Could not close journal {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Get the file being written
+     *
+     * @return the journal file
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Get the number of moves recorded
+     *
+     * @return moves recorded
+     */
+    public long getRecords() {
+        return records;
+    }
+}
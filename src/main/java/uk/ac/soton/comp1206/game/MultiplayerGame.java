@@ -2,9 +2,11 @@ package uk.ac.soton.comp1206.game;
 
 import java.util.ArrayDeque;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 import javafx.application.Platform;
 import javafx.beans.property.IntegerProperty;
@@ -15,7 +17,6 @@ import javafx.collections.FXCollections;
 import javafx.util.Pair;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import uk.ac.soton.comp1206.component.GameBlock;
 import uk.ac.soton.comp1206.network.Communicator;
 import uk.ac.soton.comp1206.scene.MultiplayerScene;
 
@@ -55,6 +56,10 @@ public class MultiplayerGame extends Game {
      */
     private MultiplayerScene multiplayerScene;
     private Queue<GamePiece> pieceQueue = new ArrayDeque<>();
+    /**
+     * Number of pieces asked for which the server has not sent yet, including requests kept while reconnecting
+     */
+    private final AtomicInteger piecesRequested = new AtomicInteger();
     private Boolean gameStarted = false;
 
     /**
@@ -89,9 +94,10 @@ public class MultiplayerGame extends Game {
             case "PIECE":
                 int pieceId = Integer.parseInt(messageParts[1]);
                 GamePiece gamePiece = GamePiece.createPiece(pieceId);
+                piecesRequested.updateAndGet(requested -> Math.max(0, requested - 1));
                 if (pieceQueue.size() < 6) {
                     for (int i = 0; i < 6; i++) {
-                        communicator.send("PIECE");
+                        requestPiece();
                     }
                 }
                 if (!gameStarted) {
@@ -136,17 +142,30 @@ public class MultiplayerGame extends Game {
         }
     }
 
+    /**
+     * overridden method from Game class
+     * the upcoming pieces are the ones already received from the server
+     *
+     * @param count the most pieces to look at
+     * @return the queued pieces in order, up to count
+     */
+    @Override
+    public List<GamePiece> peekPieces(int count) {
+        return pieceQueue.stream().limit(count).collect(Collectors.toList());
+    }
+
     //Handling Board
 
     /**
      * Overridden method used to handle when a block is clicked
      * informs the server of the players board state
      *
-     * @param : block currently clicked
+     * @param x column clicked
+     * @param y row clicked
      */
     @Override
-    public boolean blockClicked(GameBlock gameBlock) {
-        boolean success = super.blockClicked(gameBlock);
+    public boolean blockClicked(int x, int y) {
+        boolean success = super.blockClicked(x, y);
         if (success) {
             communicator.send("BOARD " + boardToString());
         }
@@ -330,21 +349,50 @@ public class MultiplayerGame extends Game {
     public void initialiseGame() {
         logger.info("Initialising game");
         for (int i = 0; i < 6; i++) {
-            communicator.send("PIECE");
+            requestPiece();
         }
         startGameLoop();
-        communicator.addListener(this::handleCommunication);
+        //Messages arrive on the network thread, so each one is applied as a command
+        communicator.addListener(message -> commands.submit(() -> handleCommunication(message)));
+        communicator.addReconnectListener(() -> commands.submit(this::resynchronise));
 
     }
 
+    /**
+     * Method used to bring the server up to date after the connection dropped and came back
+     * Anything sent while it was down has already been replayed, so this sends the state as it is now
+     */
+    private void resynchronise() {
+        logger.info("Resynchronising after reconnect");
+        communicator.send("BOARD " + boardToString());
+        communicator.send("SCORE " + getScore());
+        communicator.send("LIVES " + getLives());
+        communicator.send("SCORES");
+        //Make sure enough pieces are on their way to keep playing, counting requests already replayed
+        for (int i = pieceQueue.size() + piecesRequested.get(); i < 3; i++) {
+            requestPiece();
+        }
+        if (multiplayerScene != null) {
+            multiplayerScene.addChatMessage("Reconnected to the server");
+        }
+    }
+
+    /**
+     * Method used to ask the server for another piece, counting it until it arrives
+     */
+    private void requestPiece() {
+        piecesRequested.incrementAndGet();
+        communicator.send("PIECE");
+    }
+
     /**
      * Method that handles initialising the Game with the first pieces
      */
     public void tryStartGame() {
         if (pieceQueue.size() >= 3) { // Assuming 3 is the number of initial pieces needed
             // Now we have enough pieces to start, so set the current and following pieces
-            currentPiece = pieceQueue.poll();
-            followingPiece = pieceQueue.poll();
+            GamePiece current = pieceQueue.poll();
+            core.setPieces(current, pieceQueue.poll());
             // Update the UI with these pieces
             Platform.runLater(() -> {
                 multiplayerScene.nextPieceBoard.setPiece(
@@ -0,0 +1,244 @@
+package uk.ac.soton.comp1206.game;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * A PieceSequence deals the pieces of a game from a single seeded random number generator, so the same seed always
+ * deals the same pieces in the same order.
+ * <p>
+ * Pieces can be chosen purely at random, or from a bag holding one of every piece which is shuffled, dealt out and
+ * refilled, so no piece is ever more than one bag away. Upcoming pieces can be looked at before they are dealt; they
+ * are held in a small look-ahead buffer and dealt from it in order.
+ */
+public class PieceSequence implements Supplier<GamePiece> {
+
+    /**
+     * How pieces are chosen
+     */
+    public enum Mode {
+        /**
+         * Every piece is chosen at random
+         */
+        RANDOM,
+        /**
+         * Pieces are dealt from a shuffled bag of one of every piece
+         */
+        BAG
+    }
+
+    /**
+     * The number of upcoming pieces which can be looked at by default
+     */
+    public static final int DEFAULT_LOOK_AHEAD = 8;
+
+    /**
+     * The seed the sequence was started from
+     */
+    private final long seed;
+
+    /**
+     * How pieces are chosen
+     */
+    private final Mode mode;
+
+    /**
+     * The only source of randomness in the sequence
+     */
+    private final SplittableRandom random;
+
+    /**
+     * The bag of piece numbers in BAG mode, dealt from bagIndex upwards
+     */
+    private final int[] bag = new int[GamePiece.PIECES];
+    private int bagIndex = GamePiece.PIECES;
+
+    /**
+     * Upcoming pieces, a ring buffer of buffered pieces starting at head
+     */
+    private final GamePiece[] buffer;
+    private int head = 0;
+    private int buffered = 0;
+
+    /**
+     * The number of pieces dealt so far
+     */
+    private long drawn = 0;
+
+    /**
+     * Create a sequence of randomly chosen pieces with a random seed
+     */
+    public PieceSequence() {
+        this(randomSeed());
+    }
+
+    /**
+     * Create a sequence of randomly chosen pieces
+     *
+     * @param seed the seed
+     */
+    public PieceSequence(long seed) {
+        this(seed, Mode.RANDOM);
+    }
+
+    /**
+     * Create a sequence with the default look-ahead
+     *
+     * @param seed the seed
+     * @param mode how pieces are chosen
+     */
+    public PieceSequence(long seed, Mode mode) {
+        this(seed, mode, DEFAULT_LOOK_AHEAD);
+    }
+
+    /**
+     * Create a sequence
+     *
+     * @param seed      the seed
+     * @param mode      how pieces are chosen
+     * @param lookAhead the number of upcoming pieces which can be looked at
+     */
+    public PieceSequence(long seed, Mode mode, int lookAhead) {
+        if (lookAhead < 1) {
+            throw new IllegalArgumentException("Look-ahead must be at least 1: " + lookAhead);
+        }
+        this.seed = seed;
+        this.mode = mode;
+        this.random = new SplittableRandom(seed);
+        this.buffer = new GamePiece[lookAhead];
+    }
+
+    /**
+     * Pick a seed for a new game
+     *
+     * @return a random seed
+     */
+    public static long randomSeed() {
+        return ThreadLocalRandom.current().nextLong();
+    }
+
+    /**
+     * Deal the next piece
+     *
+     * @return the piece
+     */
+    public GamePiece next() {
+        GamePiece piece;
+        if (buffered > 0) {
+            piece = buffer[head];
+            buffer[head] = null;
+            head = (head + 1) % buffer.length;
+            buffered--;
+        } else {
+            piece = generate();
+        }
+        drawn++;
+        return piece;
+    }
+
+    /**
+     * Deal the next piece
+     *
+     * @return the piece
+     */
+    @Override
+    public GamePiece get() {
+        return next();
+    }
+
+    /**
+     * Look at an upcoming piece without dealing it
+     *
+     * @param ahead how far ahead to look, 0 for the next piece to be dealt
+     * @return the piece
+     */
+    public GamePiece peek(int ahead) {
+        if (ahead < 0 || ahead >= buffer.length) {
+            throw new IndexOutOfBoundsException("Can only look " + buffer.length + " pieces ahead: " + ahead);
+        }
+        while (buffered <= ahead) {
+            buffer[(head + buffered) % buffer.length] = generate();
+            buffered++;
+        }
+        return buffer[(head + ahead) % buffer.length];
+    }
+
+    /**
+     * Deal and throw away a number of pieces, for example to bring a new sequence up to where another one was
+     *
+     * @param count the number of pieces to skip
+     */
+    public void skip(long count) {
+        for (long i = 0; i < count; i++) {
+            next();
+        }
+    }
+
+    /**
+     * Choose a new piece from the random number generator
+     *
+     * @return the piece
+     */
+    private GamePiece generate() {
+        if (mode == Mode.RANDOM) {
+            return GamePiece.createPiece(random.nextInt(GamePiece.PIECES));
+        }
+        if (bagIndex == bag.length) {
+            refillBag();
+        }
+        return GamePiece.createPiece(bag[bagIndex++]);
+    }
+
+    /**
+     * Put one of every piece back in the bag and shuffle it
+     */
+    private void refillBag() {
+        for (int i = 0; i < bag.length; i++) {
+            bag[i] = i;
+        }
+        for (int i = bag.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = bag[i];
+            bag[i] = bag[j];
+            bag[j] = swap;
+        }
+        bagIndex = 0;
+    }
+
+    /**
+     * Get the seed the sequence was started from
+     *
+     * @return the seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Get how pieces are chosen
+     *
+     * @return the mode
+     */
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Get how many upcoming pieces can be looked at
+     *
+     * @return the look-ahead
+     */
+    public int getLookAhead() {
+        return buffer.length;
+    }
+
+    /**
+     * Get the number of pieces dealt so far
+     *
+     * @return pieces dealt
+     */
+    public long getDrawn() {
+        return drawn;
+    }
+}
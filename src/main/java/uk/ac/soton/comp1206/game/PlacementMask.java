@@ -0,0 +1,103 @@
+package uk.ac.soton.comp1206.game;
+
+/**
+ * A PlacementMask records every centre position on a board where a particular piece shape can be played, as one packed
+ * long per row (bit x is set when the piece can be centred on column x).
+ * <p>
+ * Masks are built by BitBoard#legalPlacements and are not changed afterwards. A mask describes the board as it was
+ * when it was built.
+ */
+public class PlacementMask {
+
+    /**
+     * Legal centre positions of each row, one bit per column
+     */
+    private final long[] rows;
+
+    /**
+     * The number of legal centre positions
+     */
+    private final int count;
+
+    /**
+     * The board version this mask was built from
+     */
+    private final long version;
+
+    /**
+     * Create a new PlacementMask. Should only be built by a BitBoard.
+     *
+     * @param rows    legal centre positions of each row
+     * @param version the board version the mask was built from
+     */
+    PlacementMask(long[] rows, long version) {
+        this.rows = rows;
+        this.version = version;
+
+        int total = 0;
+        for (long row : rows) {
+            total += Long.bitCount(row);
+        }
+        this.count = total;
+    }
+
+    /**
+     * Check whether the piece can be centred on the given position
+     *
+     * @param x column
+     * @param y row
+     * @return true if the placement is legal
+     */
+    public boolean isLegal(int x, int y) {
+        if (y < 0 || y >= rows.length || x < 0 || x >= Long.SIZE) {
+            return false;
+        }
+        return (rows[y] & (1L << x)) != 0;
+    }
+
+    /**
+     * Get the legal centre positions in a row
+     *
+     * @param y row
+     * @return one bit per column, set when the placement is legal
+     */
+    public long getRowBits(int y) {
+        return rows[y];
+    }
+
+    /**
+     * Get the number of rows covered by this mask
+     *
+     * @return number of rows
+     */
+    public int getRows() {
+        return rows.length;
+    }
+
+    /**
+     * Get the number of legal centre positions
+     *
+     * @return legal positions
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * Check whether the piece can not be played anywhere
+     *
+     * @return true if there are no legal positions
+     */
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Get the board version this mask was built from
+     *
+     * @return board version
+     */
+    long getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,240 @@
+package uk.ac.soton.comp1206.game;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * A Recording is a game read back from a move journal: the seed and board it was played with and every move made.
+ * The moves are held in parallel arrays, so even long games read back as a handful of objects.
+ */
+public class Recording {
+
+    private final long seed;
+    private final PieceSequence.Mode mode;
+    private final int cols;
+    private final int rows;
+    private final StuckPolicy stuckPolicy;
+    private final long startedAt;
+
+    /**
+     * Each move, indexed by move number
+     */
+    private final Move[] moves;
+    private final byte[] pieces;
+    private final byte[] rotations;
+    private final short[] xs;
+    private final short[] ys;
+    private final long[] times;
+
+    /**
+     * Create a recording
+     *
+     * @param seed      the seed of the piece sequence
+     * @param mode      how pieces were chosen
+     * @param cols      number of columns
+     * @param rows      number of rows
+     * @param stuck     what the game did when neither piece fit anywhere
+     * @param startedAt when the game started, in epoch millis
+     * @param moves     the moves
+     * @param pieces    the current piece number at each move
+     * @param rotations the current piece rotation at each move
+     * @param xs        the column of each placement, or -1
+     * @param ys        the row of each placement, or -1
+     * @param times     the game clock time of each move
+     */
+    public Recording(long seed, PieceSequence.Mode mode, int cols, int rows, StuckPolicy stuck, long startedAt,
+        Move[] moves, byte[] pieces, byte[] rotations, short[] xs, short[] ys, long[] times) {
+        this.seed = seed;
+        this.mode = mode;
+        this.cols = cols;
+        this.rows = rows;
+        this.stuckPolicy = stuck;
+        this.startedAt = startedAt;
+        this.moves = moves;
+        this.pieces = pieces;
+        this.rotations = rotations;
+        this.xs = xs;
+        this.ys = ys;
+        this.times = times;
+    }
+
+    /**
+     * Read a journal written by a MoveJournal. Reading stops at the first incomplete record, so a journal cut short by
+     * a crash reads back up to its last whole move.
+     *
+     * @param file the journal
+     * @return the recording
+     * @throws IOException if the file can not be read or is not a journal
+     */
+    public static Recording read(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (buffer.remaining() < MoveJournal.HEADER_SIZE || buffer.getInt() != MoveJournal.MAGIC) {
+            throw new IOException("Not a move journal: " + file);
+        }
+        short format = buffer.getShort();
+        short recordSize = buffer.getShort();
+        if (format != MoveJournal.FORMAT || recordSize != MoveJournal.RECORD_SIZE) {
+            throw new IOException("Unsupported journal format " + format + ": " + file);
+        }
+        long seed = buffer.getLong();
+        PieceSequence.Mode mode = PieceSequence.Mode.values()[buffer.get()];
+        int cols = buffer.get();
+        int rows = buffer.get();
+        //Journals from before stuck games were detected hold 0 here, which is IGNORE
+        StuckPolicy stuck = StuckPolicy.values()[buffer.get()];
+        buffer.position(24);
+        long startedAt = buffer.getLong();
+
+        //Count the whole records, stopping at the end marker
+        int count = 0;
+        int limit = buffer.limit() - MoveJournal.RECORD_SIZE;
+        for (int at = MoveJournal.HEADER_SIZE; at <= limit; at += MoveJournal.RECORD_SIZE) {
+            int move = buffer.get(at);
+            if (move <= 0 || move > Move.values().length) break;
+            count++;
+        }
+
+        Move[] moves = new Move[count];
+        byte[] pieces = new byte[count];
+        byte[] rotations = new byte[count];
+        short[] xs = new short[count];
+        short[] ys = new short[count];
+        long[] times = new long[count];
+        Move[] values = Move.values();
+        for (int i = 0; i < count; i++) {
+            int at = MoveJournal.HEADER_SIZE + i * MoveJournal.RECORD_SIZE;
+            moves[i] = values[buffer.get(at) - 1];
+            pieces[i] = buffer.get(at + 1);
+            rotations[i] = buffer.get(at + 2);
+            xs[i] = buffer.getShort(at + 4);
+            ys[i] = buffer.getShort(at + 6);
+            times[i] = buffer.getLong(at + 8);
+        }
+        return new Recording(seed, mode, cols, rows, stuck, startedAt, moves, pieces, rotations, xs, ys, times);
+    }
+
+    /**
+     * Get the seed of the piece sequence
+     *
+     * @return the seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Get what the game did when neither piece fit anywhere
+     *
+     * @return the stuck policy
+     */
+    public StuckPolicy getStuckPolicy() {
+        return stuckPolicy;
+    }
+
+    /**
+     * Get how pieces were chosen
+     *
+     * @return the mode
+     */
+    public PieceSequence.Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Get the number of columns
+     *
+     * @return number of columns
+     */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Get the number of rows
+     *
+     * @return number of rows
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Get when the game started
+     *
+     * @return epoch millis
+     */
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    /**
+     * Get the number of moves
+     *
+     * @return number of moves
+     */
+    public int size() {
+        return moves.length;
+    }
+
+    /**
+     * Get a move
+     *
+     * @param index move number
+     * @return the move
+     */
+    public Move getMove(int index) {
+        return moves[index];
+    }
+
+    /**
+     * Get the number of the current piece when a move was made
+     *
+     * @param index move number
+     * @return piece number
+     */
+    public int getPiece(int index) {
+        return pieces[index];
+    }
+
+    /**
+     * Get the rotation of the current piece when a move was made
+     *
+     * @param index move number
+     * @return rotation
+     */
+    public int getRotation(int index) {
+        return rotations[index];
+    }
+
+    /**
+     * Get the column a piece was played at
+     *
+     * @param index move number
+     * @return column, or -1 if no piece was played
+     */
+    public int getX(int index) {
+        return xs[index];
+    }
+
+    /**
+     * Get the row a piece was played at
+     *
+     * @param index move number
+     * @return row, or -1 if no piece was played
+     */
+    public int getY(int index) {
+        return ys[index];
+    }
+
+    /**
+     * Get the game clock time of a move
+     *
+     * @param index move number
+     * @return time in milliseconds
+     */
+    public long getTime(int index) {
+        return times[index];
+    }
+}
@@ -0,0 +1,243 @@
+package uk.ac.soton.comp1206.game;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * The ReplayEngine plays a recorded game again on a headless GameCore, as fast as the rules can be applied.
+ * <p>
+ * The game is rebuilt from the recording's seed, with each recorded move applied in turn. Every move is checked
+ * against the rules as it is applied, so a recording which could not have come from a real game, or which was played
+ * under different rules, fails at the first move which does not fit.
+ * <p>
+ * A snapshot of the game is kept every few moves, so seeking to any move only replays from the nearest snapshot
+ * before it.
+ */
+public class ReplayEngine {
+
+    private static final Logger logger = LogManager.getLogger(ReplayEngine.class);
+
+    /**
+     * The number of moves between snapshots by default
+     */
+    public static final int DEFAULT_SNAPSHOT_INTERVAL = 64;
+
+    /**
+     * The game being replayed
+     */
+    private final Recording recording;
+
+    /**
+     * The number of moves between snapshots
+     */
+    private final int interval;
+
+    /**
+     * Snapshot i is the state before move i * interval, taken the first time the replay gets there
+     */
+    private final List<Checkpoint> checkpoints = new ArrayList<>();
+
+    /**
+     * The game the moves are applied to, and the sequence dealing its pieces
+     */
+    private GameCore core;
+    private PieceSequence pieces;
+
+    /**
+     * The number of moves applied so far
+     */
+    private int position;
+
+    /**
+     * Create a replay with snapshots every DEFAULT_SNAPSHOT_INTERVAL moves
+     *
+     * @param recording the game to replay
+     */
+    public ReplayEngine(Recording recording) {
+        this(recording, DEFAULT_SNAPSHOT_INTERVAL);
+    }
+
+    /**
+     * Create a replay
+     *
+     * @param recording the game to replay
+     * @param interval  the number of moves between snapshots
+     */
+    public ReplayEngine(Recording recording, int interval) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("Snapshot interval must be at least 1: " + interval);
+        }
+        this.recording = recording;
+        this.interval = interval;
+
+        pieces = new PieceSequence(recording.getSeed(), recording.getMode());
+        core = new GameCore(recording.getCols(), recording.getRows(), pieces);
+        core.setStuckPolicy(recording.getStuckPolicy());
+        core.start();
+        position = 0;
+        checkpoints.add(new Checkpoint(core.snapshot(), pieces.getDrawn()));
+    }
+
+    /**
+     * Apply the next move
+     *
+     * @return false if every move has already been applied
+     * @throws IllegalStateException if the move does not fit the game
+     */
+    public boolean step() {
+        if (position >= recording.size()) {
+            return false;
+        }
+        apply(position);
+        position++;
+        if (position % interval == 0 && checkpoints.size() == position / interval) {
+            checkpoints.add(new Checkpoint(core.snapshot(), pieces.getDrawn()));
+        }
+        return true;
+    }
+
+    /**
+     * Apply every remaining move
+     *
+     * @return the state at the end of the game
+     * @throws IllegalStateException if a move does not fit the game
+     */
+    public GameSnapshot runToEnd() {
+        while (step()) {
+            //Keep going
+        }
+        return core.snapshot();
+    }
+
+    /**
+     * Move the replay to just before the given move, going back to the nearest snapshot if needed
+     *
+     * @param target the move number, from 0 to the number of moves
+     * @throws IllegalStateException if a move does not fit the game
+     */
+    public void seek(int target) {
+        if (target < 0 || target > recording.size()) {
+            throw new IndexOutOfBoundsException("No such move: " + target);
+        }
+        int nearest = Math.min(target / interval, checkpoints.size() - 1);
+        if (target < position || nearest * interval > position) {
+            restore(nearest);
+        }
+        while (position < target) {
+            step();
+        }
+    }
+
+    /**
+     * Rebuild the game from a snapshot, dealing from a new sequence brought up to the same point
+     *
+     * @param index the snapshot number
+     */
+    private void restore(int index) {
+        Checkpoint checkpoint = checkpoints.get(index);
+        pieces = new PieceSequence(recording.getSeed(), recording.getMode());
+        pieces.skip(checkpoint.drawn);
+        core = new GameCore(recording.getCols(), recording.getRows(), pieces);
+        core.setStuckPolicy(recording.getStuckPolicy());
+        core.restore(checkpoint.snapshot);
+        position = index * interval;
+        logger.debug("Replay restored to move {}", position);
+    }
+
+    /**
+     * Apply one recorded move to the game, checking it fits
+     *
+     * @param index the move number
+     */
+    private void apply(int index) {
+        Move move = recording.getMove(index);
+        GamePiece current = core.getCurrentPiece();
+        if (current == null || current.getPiece() != recording.getPiece(index)) {
+            throw mismatch(index, "current piece is " + current + " but the recording has piece "
+                + recording.getPiece(index));
+        }
+
+        boolean applied = switch (move) {
+            case PLACE -> {
+                //The recording holds the rotation the piece was played in
+                core.setPieces(current.rotate(recording.getRotation(index) - current.getRotation()),
+                    core.getFollowingPiece());
+                yield core.playPiece(recording.getX(index), recording.getY(index));
+            }
+            case SWAP -> {
+                core.swapCurrentPiece();
+                yield true;
+            }
+            case SKIP -> core.skipPiece();
+            case CLEAR_BOARD -> core.clearBoard();
+            case BUY_LIFE -> core.increaseLives();
+            case TIMEOUT -> {
+                core.timeout();
+                yield true;
+            }
+        };
+        if (!applied) {
+            throw mismatch(index, move + " is not allowed here");
+        }
+    }
+
+    /**
+     * Build the error for a move which does not fit the game
+     *
+     * @param index  the move number
+     * @param reason what went wrong
+     * @return the error
+     */
+    private IllegalStateException mismatch(int index, String reason) {
+        return new IllegalStateException("Recording does not match the rules at move " + index + ": " + reason);
+    }
+
+    /**
+     * Get the game as it stands
+     *
+     * @return the game core
+     */
+    public GameCore getCore() {
+        return core;
+    }
+
+    /**
+     * Get the number of moves applied so far
+     *
+     * @return position
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * Get the game being replayed
+     *
+     * @return the recording
+     */
+    public Recording getRecording() {
+        return recording;
+    }
+
+    /**
+     * The state before a move, and how many pieces had been dealt by then
+     */
+    private static class Checkpoint {
+
+        private final GameSnapshot snapshot;
+        private final long drawn;
+
+        /**
+         * Create a checkpoint
+         *
+         * @param snapshot the state
+         * @param drawn    the number of pieces dealt
+         */
+        private Checkpoint(GameSnapshot snapshot, long drawn) {
+            this.snapshot = snapshot;
+            this.drawn = drawn;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package uk.ac.soton.comp1206.game;
+
+/**
+ * What a GameCore does when neither the current nor the following piece fits anywhere on the board, in any rotation,
+ * so the player can only wait for the timer.
+ */
+public enum StuckPolicy {
+
+    /**
+     * Do nothing; the player loses a life when the timer runs out
+     */
+    IGNORE,
+
+    /**
+     * Apply the timer's penalty straight away: lose a life, discard the current piece and reset the multiplier
+     */
+    PENALTY,
+
+    /**
+     * End the game straight away
+     */
+    END_GAME
+}
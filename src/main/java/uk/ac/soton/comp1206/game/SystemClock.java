@@ -0,0 +1,72 @@
+package uk.ac.soton.comp1206.game;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A GameClock following the system clock, optionally sped up by a fixed rate. Timeouts are run by a GameScheduler.
+ */
+public class SystemClock implements GameClock {
+
+    /**
+     * Runs the scheduled tasks
+     */
+    private final GameScheduler scheduler;
+
+    /**
+     * How many times faster than the system clock this clock runs
+     */
+    private final double rate;
+
+    /**
+     * When the clock was created, in system nanoseconds
+     */
+    private final long startTime = System.nanoTime();
+
+    /**
+     * Create a new clock
+     *
+     * @param scheduler runs the scheduled tasks
+     * @param rate      how many times faster than the system clock this clock runs
+     */
+    public SystemClock(GameScheduler scheduler, double rate) {
+        if (!(rate > 0) || Double.isInfinite(rate)) {
+            throw new IllegalArgumentException("Clock rate must be positive: " + rate);
+        }
+        this.scheduler = scheduler;
+        this.rate = rate;
+    }
+
+    /**
+     * Get the time on this clock
+     *
+     * @return the time in milliseconds since the clock started
+     */
+    @Override
+    public long millis() {
+        //Scale before rounding, so a sped up clock still moves a millisecond at a time
+        return (long) ((System.nanoTime() - startTime) * rate / 1_000_000);
+    }
+
+    /**
+     * Get how many milliseconds of game time pass for each millisecond of real time
+     *
+     * @return the rate
+     */
+    @Override
+    public double getRate() {
+        return rate;
+    }
+
+    /**
+     * Run a task once after the given amount of game time
+     *
+     * @param task  the task to run
+     * @param delay how long to wait in milliseconds of game time
+     * @return a handle which can cancel the task
+     */
+    @Override
+    public Cancellable schedule(Runnable task, long delay) {
+        long nanos = (long) (TimeUnit.MILLISECONDS.toNanos(delay) / rate);
+        return scheduler.schedule(task, nanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -1,95 +1,430 @@
 package uk.ac.soton.comp1206.network;
 
 import com.neovisionaries.ws.client.*;
-import javafx.scene.control.Alert;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import uk.ac.soton.comp1206.event.CommunicationsListener;
+import uk.ac.soton.comp1206.event.ReconnectListener;
 
-import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Uses web sockets to talk to a web socket server and relays communication to attached listeners
- *
- * YOU DO NOT NEED TO WORRY ABOUT THIS CLASS! Leave it be :-)
+ * <p>
+ * Connecting happens in the background, so nothing waits on the network until it needs the server. The connection
+ * state is published as a property on the JavaFX thread, and the connection future completes once connected, or
+ * fails if the server cannot be reached, after which connect can be called again to retry.
+ * <p>
+ * A connection which drops is reconnected automatically, waiting twice as long after each failed attempt, with some
+ * randomness so many clients do not all retry at once. Messages sent while connecting or reconnecting, and any the
+ * socket could not send when it died, are kept in a bounded buffer. Once reconnected the nickname and channel are
+ * restored, the buffer is replayed in order, and the reconnect listeners are told so they can resynchronise.
  */
 public class Communicator {
 
     private static final Logger logger = LogManager.getLogger(Communicator.class);
 
+    /**
+     * How long to wait for the server to accept the connection
+     */
+    private static final int CONNECT_TIMEOUT_MILLIS = 5000;
+
+    /**
+     * How often to ping the server, so a connection which has silently died is noticed
+     */
+    private static final long PING_INTERVAL_MILLIS = 10_000;
+
+    /**
+     * The wait before the first attempt to reconnect, doubling after each failed attempt up to the maximum
+     */
+    private static final long RECONNECT_BASE_MILLIS = 500;
+    private static final long RECONNECT_MAX_MILLIS = 30_000;
+
+    /**
+     * The number of attempts to reconnect before giving up
+     */
+    private static final int RECONNECT_ATTEMPTS = 10;
+
+    /**
+     * The most messages kept while not connected. The oldest are dropped beyond this.
+     */
+    private static final int BUFFER_LIMIT = 128;
+
+    /**
+     * Runs the waits between attempts to reconnect
+     */
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "communicator-reconnect");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * The state of the connection to the server
+     */
+    public enum State {
+        /**
+         * Not connected, and not trying to
+         */
+        DISCONNECTED,
+        /**
+         * Trying to connect
+         */
+        CONNECTING,
+        /**
+         * Connected, messages can be sent
+         */
+        CONNECTED,
+        /**
+         * The connection dropped and is being retried, messages are kept until it is back
+         */
+        RECONNECTING,
+        /**
+         * The last attempt to connect failed
+         */
+        FAILED
+    }
+
     /**
      * Attached communication listeners listening to messages on this Communicator. Each will be sent any messages.
      */
-    private final List<CommunicationsListener> handlers = new ArrayList<>();
+    private final List<CommunicationsListener> handlers = new CopyOnWriteArrayList<>();
 
-    private WebSocket ws = null;
+    /**
+     * Attached reconnect listeners, told whenever a dropped connection comes back
+     */
+    private final List<ReconnectListener> reconnectListeners = new CopyOnWriteArrayList<>();
 
     /**
-     * Create a new communicator to the given web socket server
+     * The server to connect to
+     */
+    private final String server;
+
+    private final WebSocketFactory socketFactory = new WebSocketFactory().setConnectionTimeout(CONNECT_TIMEOUT_MILLIS);
+
+    private volatile WebSocket ws = null;
+
+    /**
+     * The state as last set, readable from any thread
+     */
+    private volatile State current = State.DISCONNECTED;
+
+    /**
+     * The state, updated on the JavaFX thread
+     */
+    private final ReadOnlyObjectWrapper<State> state = new ReadOnlyObjectWrapper<>(State.DISCONNECTED);
+
+    /**
+     * Completes when the current attempt to connect succeeds
+     */
+    private CompletableFuture<Communicator> connection = new CompletableFuture<>();
+
+    /**
+     * Messages waiting for the connection, oldest first
+     */
+    private final Deque<String> buffer = new ArrayDeque<>();
+
+    /**
+     * Messages handed to a socket which died before sending them, oldest first. They were sent before anything in the
+     * buffer, so they go back in front of it when reconnected.
+     */
+    private final Deque<String> unsent = new ArrayDeque<>();
+
+    /**
+     * The nickname and channel last sent to the server, restored after reconnecting
+     */
+    private String nickname;
+    private String channel;
+
+    /**
+     * The number of failed attempts to reconnect since the connection dropped
+     */
+    private int attempts;
+
+    /**
+     * Set once QUIT has been sent, so the server closing the connection is not treated as a drop
+     */
+    private boolean quitting;
+
+    /**
+     * Create a new communicator to the given web socket server. Nothing is sent until connect is called.
      *
      * @param server server to connect to
      */
     public Communicator(String server) {
+        this.server = server;
+    }
 
+    /**
+     * Start connecting to the server in the background, unless already connected or connecting
+     *
+     * @return completes when connected, or fails if the server cannot be reached
+     */
+    public synchronized CompletableFuture<Communicator> connect() {
+        if (current == State.CONNECTING || current == State.CONNECTED || current == State.RECONNECTING) {
+            return connection;
+        }
+        connection = new CompletableFuture<>();
+        quitting = false;
+        setState(State.CONNECTING);
+        logger.info("Connecting to " + server);
+        open();
+        return connection;
+    }
+
+    /**
+     * Open a new socket to the server in the background
+     */
+    private synchronized void open() {
         try {
-            var socketFactory = new WebSocketFactory();
-
-            //Connect to the server
-            ws = socketFactory.createSocket(server);
-            ws.connect();
-            logger.info("Connected to " + server);
-
-            //When a message is received, call the receive method
-            ws.addListener(new WebSocketAdapter() {
-                @Override
-                public void onTextMessage(WebSocket websocket, String message) throws Exception {
-                    Communicator.this.receive(websocket, message);
-                }
-                @Override
-                public void onPingFrame(WebSocket webSocket, WebSocketFrame webSocketFrame) throws Exception {
-                    logger.info("Ping? Pong!");
-                }
-            });
-
-            //Error handling
-            ws.addListener(new WebSocketAdapter() {
-                @Override
-                public void onTextMessage(WebSocket websocket, String message) throws Exception {
-                    if(message.startsWith("ERROR")) {
-                        logger.error(message);
-                    }
+            WebSocket socket = socketFactory.createSocket(server);
+            socket.setPingInterval(PING_INTERVAL_MILLIS);
+            socket.addListener(new Listener());
+            ws = socket;
+            socket.connectAsynchronously();
+        } catch (Exception e) {
+            connectFailed(e);
+        }
+    }
+
+    /**
+     * Handle the socket connecting, restoring the session and replaying the buffer if it was a reconnection
+     */
+    private void connected() {
+        boolean reconnected;
+        synchronized (this) {
+            reconnected = current == State.RECONNECTING;
+            logger.info((reconnected ? "Reconnected to " : "Connected to ") + server);
+            current = State.CONNECTED;
+            attempts = 0;
+            requeueUnsent(reconnected);
+            if (reconnected) {
+                //Restore the session ahead of anything else waiting to be sent
+                if (channel != null) {
+                    buffer.addFirst("JOIN " + channel);
                 }
-                @Override
-                public void handleCallbackError(WebSocket webSocket, Throwable throwable) throws Exception {
-                    logger.error("Callback Error:" + throwable.getMessage());
-                    throwable.printStackTrace();
+                if (nickname != null) {
+                    buffer.addFirst("NICK " + nickname);
                 }
-                @Override
-                public void onError(WebSocket webSocket, WebSocketException e) throws Exception {
-                    logger.error("Error:" + e.getMessage());
-                    e.printStackTrace();
+            }
+            if (!buffer.isEmpty()) {
+                logger.info("Replaying " + buffer.size() + " messages");
+            }
+            //Stop as soon as the socket closes, leaving the rest in order for the next reconnect
+            while (!buffer.isEmpty() && ws.isOpen()) {
+                String message = buffer.peekFirst();
+                logger.info("Sending message: " + message);
+                ws.sendText(message);
+                buffer.pollFirst();
+                remember(message);
+            }
+            setState(current);
+            connection.complete(this);
+        }
+        if (reconnected) {
+            for (ReconnectListener listener : reconnectListeners) {
+                listener.reconnected();
+            }
+        }
+    }
+
+    /**
+     * Put messages a dead socket never sent back at the front of the buffer, in the order they were first sent, and
+     * drop the oldest if that takes the buffer over its limit
+     *
+     * @param restoring whether the session is about to be restored, so unsent NICK and JOIN are not needed
+     */
+    private void requeueUnsent(boolean restoring) {
+        while (!unsent.isEmpty()) {
+            String message = unsent.pollLast();
+            if (restoring && (message.startsWith("NICK ") || message.startsWith("JOIN "))) continue;
+            buffer.addFirst(message);
+        }
+        while (buffer.size() > BUFFER_LIMIT) {
+            logger.warn("Send buffer full, dropping message: " + buffer.pollFirst());
+        }
+    }
+
+    /**
+     * Handle an attempt to connect failing, trying again later if reconnecting
+     *
+     * @param e what went wrong
+     */
+    private synchronized void connectFailed(Exception e) {
+        if (current == State.RECONNECTING && ++attempts < RECONNECT_ATTEMPTS) {
+            logger.warn("Reconnect attempt " + attempts + " failed: " + e.getMessage());
+            scheduleReconnect();
+            return;
+        }
+        failed(e);
+    }
+
+    /**
+     * Handle the connection dropping, starting to reconnect unless it was closed on purpose
+     */
+    private synchronized void disconnected() {
+        if (quitting) {
+            logger.info("Disconnected from " + server);
+            buffer.clear();
+            unsent.clear();
+            nickname = null;
+            channel = null;
+            setState(State.DISCONNECTED);
+            return;
+        }
+        logger.warn("Lost connection to " + server + ", reconnecting");
+        connection = new CompletableFuture<>();
+        attempts = 0;
+        setState(State.RECONNECTING);
+        scheduleReconnect();
+    }
+
+    /**
+     * Wait before the next attempt to reconnect: double the last wait, up to the maximum, with the second half of it
+     * chosen at random
+     */
+    private void scheduleReconnect() {
+        long delay = Math.min(RECONNECT_MAX_MILLIS, RECONNECT_BASE_MILLIS << Math.min(attempts, 16));
+        delay = delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+        logger.info("Reconnecting in " + delay + "ms");
+        scheduler.schedule(() -> {
+            synchronized (this) {
+                if (current == State.RECONNECTING) {
+                    open();
                 }
-            });
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Get the current attempt to connect
+     *
+     * @return completes when connected, or fails if the server cannot be reached
+     */
+    public synchronized CompletableFuture<Communicator> getConnection() {
+        return connection;
+    }
+
+    /**
+     * Get the state of the connection, updated on the JavaFX thread
+     *
+     * @return the state property
+     */
+    public ReadOnlyObjectProperty<State> stateProperty() {
+        return state.getReadOnlyProperty();
+    }
+
+    /**
+     * Get the state of the connection, from any thread
+     *
+     * @return the state
+     */
+    public State getState() {
+        return current;
+    }
 
-        } catch (Exception e){
-            logger.error("Socket error: " + e.getMessage());
-            e.printStackTrace();
+    /**
+     * Check whether messages can be sent
+     *
+     * @return true if connected
+     */
+    public boolean isConnected() {
+        return current == State.CONNECTED;
+    }
 
-            Alert error = new Alert(Alert.AlertType.ERROR,"Unable to communicate with the TetrECS server\n\n" + e.getMessage() + "\n\nPlease ensure you are connected to the VPN");
-            error.showAndWait();
-            System.exit(1);
+    /**
+     * Record an attempt to connect failing
+     *
+     * @param e what went wrong
+     */
+    private synchronized void failed(Exception e) {
+        logger.error("Unable to connect to " + server + ": " + e.getMessage());
+        if (!buffer.isEmpty() || !unsent.isEmpty()) {
+            logger.warn("Dropping " + (buffer.size() + unsent.size()) + " unsent messages");
+            buffer.clear();
+            unsent.clear();
         }
+        setState(State.FAILED);
+        connection.completeExceptionally(e);
     }
 
-    /** Send a message to the server
+    /**
+     * Set the state, publishing it on the JavaFX thread
+     *
+     * @param newState the new state
+     */
+    private void setState(State newState) {
+        current = newState;
+        Platform.runLater(() -> state.set(newState));
+    }
+
+    /** Send a message to the server. Messages sent while connecting or reconnecting are kept and sent once
+     * connected; messages sent while disconnected are dropped.
      *
      * @param message Message to send
      */
-    public void send(String message) {
-        logger.info("Sending message: " + message);
+    public synchronized void send(String message) {
+        switch (current) {
+            case CONNECTED -> transmit(message);
+            case CONNECTING, RECONNECTING -> keep(message);
+            default -> logger.warn("Not connected, dropping message: " + message);
+        }
+    }
 
+    /**
+     * Send a message on the socket now, keeping it instead if the socket has already closed
+     *
+     * @param message Message to send
+     */
+    private void transmit(String message) {
+        if (!ws.isOpen()) {
+            keep(message);
+            return;
+        }
+        logger.info("Sending message: " + message);
         ws.sendText(message);
+        remember(message);
+    }
+
+    /**
+     * Keep a message to send once connected, dropping the oldest if the buffer is full
+     *
+     * @param message Message to keep
+     */
+    private void keep(String message) {
+        if (buffer.size() >= BUFFER_LIMIT) {
+            logger.warn("Send buffer full, dropping message: " + buffer.pollFirst());
+        }
+        buffer.addLast(message);
+    }
+
+    /**
+     * Track the nickname and channel from the messages sent, so they can be restored after reconnecting
+     *
+     * @param message Message sent
+     */
+    private void remember(String message) {
+        String[] parts = message.split(" ", 2);
+        switch (parts[0]) {
+            case "NICK" -> nickname = parts.length > 1 ? parts[1] : null;
+            case "JOIN", "CREATE" -> channel = parts.length > 1 ? parts[1] : null;
+            case "PART" -> channel = null;
+            case "QUIT" -> quitting = true;
+            default -> {
+            }
+        }
     }
 
     /**
@@ -100,11 +435,20 @@ public class Communicator {
         this.handlers.add(listener);
     }
 
+    /**
+     * Add a new listener to be told when a dropped connection comes back
+     * @param listener the listener to add
+     */
+    public void addReconnectListener(ReconnectListener listener) {
+        this.reconnectListeners.add(listener);
+    }
+
     /**
      * Clear all current listeners
      */
     public void clearListeners() {
         this.handlers.clear();
+        this.reconnectListeners.clear();
     }
 
     /** Receive a message from the server. Relay to any attached listeners
@@ -120,4 +464,69 @@ public class Communicator {
         }
     }
 
+    /**
+     * Follows one socket, relaying its messages and connection events
+     */
+    private class Listener extends WebSocketAdapter {
+
+        @Override
+        public void onConnected(WebSocket websocket, Map<String, List<String>> headers) {
+            if (websocket == ws) {
+                connected();
+            }
+        }
+
+        @Override
+        public void onConnectError(WebSocket websocket, WebSocketException e) {
+            if (websocket == ws) {
+                connectFailed(e);
+            }
+        }
+
+        @Override
+        public void onDisconnected(WebSocket websocket, WebSocketFrame serverCloseFrame,
+            WebSocketFrame clientCloseFrame, boolean closedByServer) {
+            if (websocket == ws && current == State.CONNECTED) {
+                disconnected();
+            }
+        }
+
+        //Messages still queued when the socket died are kept to send again, ahead of anything buffered since
+        @Override
+        public void onFrameUnsent(WebSocket websocket, WebSocketFrame frame) {
+            if (frame.isTextFrame()) {
+                synchronized (Communicator.this) {
+                    if (!quitting) {
+                        unsent.addLast(frame.getPayloadText());
+                    }
+                }
+            }
+        }
+
+        //When a message is received, call the receive method
+        @Override
+        public void onTextMessage(WebSocket websocket, String message) throws Exception {
+            if(message.startsWith("ERROR")) {
+                logger.error(message);
+            }
+            Communicator.this.receive(websocket, message);
+        }
+
+        @Override
+        public void onPingFrame(WebSocket webSocket, WebSocketFrame webSocketFrame) throws Exception {
+            logger.info("Ping? Pong!");
+        }
+
+        //Error handling
+        @Override
+        public void handleCallbackError(WebSocket webSocket, Throwable throwable) throws Exception {
+            logger.error("Callback Error:" + throwable.getMessage());
+            throwable.printStackTrace();
+        }
+
+        @Override
+        public void onError(WebSocket webSocket, WebSocketException e) throws Exception {
+            logger.error("Error:" + e.getMessage());
+        }
+    }
 }
@@ -1,7 +1,14 @@
 package uk.ac.soton.comp1206.scene;
 
 import javafx.scene.Scene;
+import javafx.scene.layout.Background;
+import javafx.scene.layout.BackgroundImage;
+import javafx.scene.layout.BackgroundPosition;
+import javafx.scene.layout.BackgroundRepeat;
+import javafx.scene.layout.BackgroundSize;
+import javafx.scene.layout.Region;
 import javafx.scene.paint.Color;
+import uk.ac.soton.comp1206.ResourceRegistry;
 import uk.ac.soton.comp1206.ui.GamePane;
 import uk.ac.soton.comp1206.ui.GameWindow;
 
@@ -33,6 +40,34 @@ public abstract class BaseScene {
      */
     public abstract void build();
 
+    /**
+     * Set a theme as the background of a pane, using the image preloaded by the ResourceRegistry so nothing is decoded
+     * when the scene is shown
+     *
+     * @param pane  the pane to fill
+     * @param theme the theme name, as stored in the settings
+     */
+    protected static void applyTheme(Region pane, String theme) {
+        String file = switch (theme) {
+            case "menu-background" -> "1.jpg";
+            case "menu-background2", "challenge-background" -> "2.jpg";
+            case "menu-background3" -> "3.jpg";
+            case "menu-background4" -> "4.jpg";
+            case "menu-background5" -> "5.jpg";
+            default -> "6.jpg";
+        };
+        //Cover the whole pane, like -fx-background-size: cover
+        BackgroundSize cover = new BackgroundSize(BackgroundSize.AUTO, BackgroundSize.AUTO, false, false, false, true);
+        pane.setBackground(new Background(new BackgroundImage(ResourceRegistry.getImage(file),
+            BackgroundRepeat.NO_REPEAT, BackgroundRepeat.NO_REPEAT, BackgroundPosition.CENTER, cover)));
+    }
+
+    /**
+     * Tear down this scene when the window moves on to another one, letting go of anything which would outlive it
+     */
+    public void cleanup() {
+    }
+
     /**
      * Create a new JavaFX scene using the root contained within this scene
      * @return JavaFX scene
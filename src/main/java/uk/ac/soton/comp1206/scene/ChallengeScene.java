@@ -3,12 +3,9 @@ package uk.ac.soton.comp1206.scene;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
-import java.util.HashSet;
 import javafx.animation.Animation;
+import javafx.animation.AnimationTimer;
 import javafx.animation.FillTransition;
-import javafx.animation.KeyFrame;
-import javafx.animation.KeyValue;
-import javafx.animation.Timeline;
 import javafx.application.Platform;
 import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.SimpleIntegerProperty;
@@ -26,11 +23,14 @@ import javafx.util.Duration;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import uk.ac.soton.comp1206.Multimedia;
-import uk.ac.soton.comp1206.component.GameBlock;
-import uk.ac.soton.comp1206.component.GameBlockCoordinate;
+import uk.ac.soton.comp1206.ai.Hint;
+import uk.ac.soton.comp1206.ai.HintEngine;
+import uk.ac.soton.comp1206.ai.HintSearch;
 import uk.ac.soton.comp1206.component.GameBoard;
 import uk.ac.soton.comp1206.component.PieceBoard;
 import uk.ac.soton.comp1206.game.Game;
+import uk.ac.soton.comp1206.game.GamePiece;
+import uk.ac.soton.comp1206.game.GameSnapshot;
 import uk.ac.soton.comp1206.game.Grid;
 import uk.ac.soton.comp1206.ui.GamePane;
 import uk.ac.soton.comp1206.ui.GameWindow;
@@ -45,7 +45,8 @@ public class ChallengeScene extends BaseScene {
     public PieceBoard nextPieceBoard;
     public PieceBoard followingPieceBoard;
     protected Rectangle timerBar;
-    private Timeline timeline;
+    private AnimationTimer timerAnimation;
+    private FillTransition flashing;
     protected VBox bottomBox;
     protected TextField chatField;
     protected BorderPane mainPane;
@@ -59,6 +60,12 @@ public class ChallengeScene extends BaseScene {
 
     protected int x, y = 0;
 
+    /**
+     * Suggests moves when the player asks for a hint, and the search running for the current piece
+     */
+    private final HintEngine hintEngine = new HintEngine();
+    private HintSearch hintSearch;
+
     /**
      * Create a new Single Player challenge scene
      *
@@ -76,7 +83,8 @@ public class ChallengeScene extends BaseScene {
      */
     public void buildBoard() {
         board =
-            new GameBoard(game.getGrid(), gameWindow.getWidth() / 2, gameWindow.getWidth() / 2);
+            new GameBoard(game.getGrid(), gameWindow.getWidth() / 2, gameWindow.getWidth() / 2,
+                GameBoard.Mode.CANVAS);
     }
 
     /**
@@ -95,7 +103,7 @@ public class ChallengeScene extends BaseScene {
         var challengePane = new StackPane();
         challengePane.setMaxWidth(gameWindow.getWidth());
         challengePane.setMaxHeight(gameWindow.getHeight());
-        challengePane.getStyleClass().add(SettingsScene.gameTheme.getText());
+        applyTheme(challengePane, SettingsScene.gameTheme.getText());
         root.getChildren().add(challengePane);
 
         mainPane = new BorderPane();
@@ -269,10 +277,11 @@ public class ChallengeScene extends BaseScene {
     /**
      * Handle when a block is clicked
      *
-     * @param gameBlock the Game Block that was clocked
+     * @param x the column clicked
+     * @param y the row clicked
      */
-    private void blockClicked(GameBlock gameBlock) {
-        boolean success = game.blockClicked(gameBlock);
+    private void blockClicked(int x, int y) {
+        boolean success = game.blockClicked(x, y);
         if (success) {
             resetTimerBar();
             game.resetGameLoop();
@@ -313,6 +322,7 @@ public class ChallengeScene extends BaseScene {
                     logger.info("escaped pressed");
                     Multimedia.stopMusic();
                     Multimedia.playAudio("transition.wav");
+                    stopTimerBar();
                     game.stopGameLoop();
                     gameWindow.startMenu();
 
@@ -321,7 +331,7 @@ public class ChallengeScene extends BaseScene {
                 case UP:
                     if (y > 0) {
                         y--;
-                        board.hover(board.getBlock(x, y));
+                        board.hover(x, y);
                         logger.info("up pressed");
                     }
                     break;
@@ -329,7 +339,7 @@ public class ChallengeScene extends BaseScene {
                 case DOWN:
                     if (y < game.getRows() - 1) {
                         y++;
-                        board.hover(board.getBlock(x, y));
+                        board.hover(x, y);
                         logger.info("down pressed");
 
                     }
@@ -338,7 +348,7 @@ public class ChallengeScene extends BaseScene {
                 case LEFT:
                     if (x > 0) {
                         x--;
-                        board.hover(board.getBlock(x, y));
+                        board.hover(x, y);
                         logger.info("left pressed");
                     }
                     break;
@@ -346,7 +356,7 @@ public class ChallengeScene extends BaseScene {
                 case RIGHT:
                     if (x < game.getCols() - 1) {
                         x++;
-                        board.hover(board.getBlock(x, y));
+                        board.hover(x, y);
                         logger.info("right pressed");
 
                     }
@@ -355,6 +365,9 @@ public class ChallengeScene extends BaseScene {
                     dropPiece();
                     logger.info("key pressed to drop piece");
                     break;
+                case H:
+                    showHint();
+                    break;
 
             }
         });
@@ -366,7 +379,7 @@ public class ChallengeScene extends BaseScene {
      */
     protected void handleClick() {
         //Handle block on gameboard grid being clicked
-        board.setOnBlockClick(this::blockClicked);
+        board.setOnCellClick(this::blockClicked);
 
         board.setOnRightClick(this::rotate);
 
@@ -389,10 +402,11 @@ public class ChallengeScene extends BaseScene {
     /**
      * method to fade out the blocks
      *
-     * @param blocks: blocks to fade out
+     * @param clearedRows: mask of the rows to fade out
+     * @param clearedCols: mask of the columns to fade out
      */
-    protected void fade(HashSet<GameBlockCoordinate> blocks) {
-        board.fadeOut(blocks);
+    protected void fade(long clearedRows, long clearedCols) {
+        board.fadeOut(clearedRows, clearedCols);
         logger.info("fade activated");
     }
 
@@ -401,6 +415,8 @@ public class ChallengeScene extends BaseScene {
      */
     public void setPieces() {
         game.setOnNextPieceListener(piece -> {
+            // A hint for the old piece is no use any more
+            cancelHint();
             // Update the PieceBoard with the new piece
             Platform.runLater(() -> nextPieceBoard.setPiece(piece));
             logger.info("currentListener updates current piece board");
@@ -413,12 +429,70 @@ public class ChallengeScene extends BaseScene {
         });
     }
 
+    /**
+     * Search for the best move in the background, and show it once found by lining up the piece over it
+     */
+    protected void showHint() {
+        cancelHint();
+        GameSnapshot snapshot = game.getSnapshot();
+        HintSearch search = hintEngine.search(snapshot, game.peekPieces(hintEngine.getDepth()));
+        hintSearch = search;
+        search.getResult().thenAccept(hint -> Platform.runLater(() -> applyHint(search, snapshot, hint)));
+        logger.info("hint requested");
+    }
+
+    /**
+     * Stop any hint search still running
+     */
+    protected void cancelHint() {
+        if (hintSearch != null) {
+            hintSearch.cancel();
+            hintSearch = null;
+        }
+    }
+
+    /**
+     * Line the current piece up with a hint: swap if advised, rotate it and move the aim to the suggested block
+     * The hint is dropped if its search was cancelled or the game has moved on since it started. Pieces are shared, so
+     * the board version is compared as well, as the same piece may be dealt again onto a different board.
+     *
+     * @param search   the search which found the hint
+     * @param snapshot the state the hint was found for
+     * @param hint     the hint, or null if no piece fits anywhere
+     */
+    private void applyHint(HintSearch search, GameSnapshot snapshot, Hint hint) {
+        GameSnapshot now = game.getSnapshot();
+        if (search != hintSearch || now.getBoardVersion() != snapshot.getBoardVersion()
+            || now.getCurrentPiece() != snapshot.getCurrentPiece()
+            || now.getFollowingPiece() != snapshot.getFollowingPiece()) {
+            return;
+        }
+        hintSearch = null;
+        if (hint == null) {
+            Multimedia.playAudio("fail.wav");
+            return;
+        }
+        logger.info("hint: {}", hint);
+        GamePiece piece = snapshot.getCurrentPiece();
+        if (hint.isSwap()) {
+            game.swapCurrentPiece();
+            piece = snapshot.getFollowingPiece();
+        }
+        int turns = Math.floorMod(hint.getPiece().getRotation() - piece.getRotation(), GamePiece.ROTATIONS);
+        for (int i = 0; i < turns; i++) {
+            game.rotateCurrentPiece();
+        }
+        x = hint.getX();
+        y = hint.getY();
+        board.hover(x, y);
+    }
+
     /**
      * Method drops the piece on the corresponding block in the board
      */
     protected void dropPiece() {
 
-        boolean success = game.blockClicked(board.getBlock(x, y));
+        boolean success = game.blockClicked(x, y);
         if (success) {
             resetTimerBar();
             game.resetGameLoop();
@@ -459,37 +533,47 @@ public class ChallengeScene extends BaseScene {
 
     /**
      * Method used to update the timerBar with animation
+     * The bar is redrawn every frame from the time left on the game's clock, so it follows a sped up or manual clock
      */
     protected void updateTimerBar() {
-        double fullBarWidth = gameWindow.getWidth();
-        double timeInterval = game.getTimerDelay();
-
-        // Update the animation to shrink the timer bar's width over the time interval
-        timeline = new Timeline(
-            new KeyFrame(
-                Duration.ZERO,
-                new KeyValue(timerBar.widthProperty(), fullBarWidth),
-                new KeyValue(timerBar.fillProperty(), Color.GREEN) // Start with green color
-            ),
-            new KeyFrame(
-                Duration.millis(timeInterval * 0.7), // At 70% of the time interval
-                new KeyValue(timerBar.fillProperty(), Color.YELLOW) // Change to yellow color
-            ),
-            new KeyFrame(
-                Duration.millis(timeInterval), // At 100% of the time interval
-                new KeyValue(timerBar.widthProperty(), 0),
-                new KeyValue(timerBar.fillProperty(), Color.RED) // Change to red color
-            )
-        );
+        if (timerAnimation != null) return;
 
         // Flashing effect when the time is almost up
-        FillTransition fillTransition =
-            new FillTransition(Duration.millis(300), timerBar, Color.RED, Color.ORANGE);
-        fillTransition.setCycleCount(Animation.INDEFINITE);
-        fillTransition.setAutoReverse(true);
+        flashing = new FillTransition(Duration.millis(300), timerBar, Color.RED, Color.ORANGE);
+        flashing.setCycleCount(Animation.INDEFINITE);
+        flashing.setAutoReverse(true);
+
+        timerAnimation = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                drawTimerBar();
+            }
+        };
+        timerAnimation.start();
+    }
 
-        timeline.setOnFinished(e -> fillTransition.play()); // Start flashing when timeline finishes
-        timeline.play();
+    /**
+     * Method used to draw the timerBar for the time left before the game loop runs
+     * It shrinks from full width and fades from green to yellow at 70% of the interval, then to red at the end
+     */
+    private void drawTimerBar() {
+        int delay = game.getLoopDelay();
+        double elapsed = delay > 0 ? 1 - (double) game.getLoopRemaining() / delay : 1;
+        elapsed = Math.min(1, Math.max(0, elapsed));
+
+        timerBar.setWidth(gameWindow.getWidth() * (1 - elapsed));
+        if (elapsed >= 1) {
+            if (flashing.getStatus() != Animation.Status.RUNNING) {
+                flashing.play(); // Start flashing when the time is up
+            }
+            return;
+        }
+        flashing.stop();
+        if (elapsed < 0.7) {
+            timerBar.setFill(Color.GREEN.interpolate(Color.YELLOW, elapsed / 0.7));
+        } else {
+            timerBar.setFill(Color.YELLOW.interpolate(Color.RED, (elapsed - 0.7) / 0.3));
+        }
     }
 
 
@@ -497,22 +581,45 @@ public class ChallengeScene extends BaseScene {
      * Method used to reset timer bar
       */
     protected void resetTimerBar() {
-        if (timeline != null) {
-            timeline.stop(); // Stop the current timeline
-        }
-        updateTimerBar(); // Create and start a new animation
+        updateTimerBar(); // Make sure the bar is being drawn, it picks up the new interval itself
+        drawTimerBar();
         logger.info("timer bar reset");
     }
 
+    /**
+     * Method used to stop drawing the timer bar
+     */
+    protected void stopTimerBar() {
+        if (timerAnimation != null) {
+            timerAnimation.stop();
+            flashing.stop();
+            timerAnimation = null;
+        }
+    }
+
     /**
      * method used to handle when the game is over
      */
     protected void gameOver() {
+        Platform.runLater(this::stopTimerBar);
         Platform.runLater(() -> gameWindow.startScoreScene(game));
         logger.info("game over");
     }
 
 
+    /**
+     * Stop any hint search, stop drawing the timer bar and detach the board from the game's grid when leaving the scene
+     */
+    @Override
+    public void cleanup() {
+        cancelHint();
+        stopTimerBar();
+        if (board != null) {
+            board.detach();
+        }
+    }
+
+
     /**
      * Initialise the scene and start the game
      */
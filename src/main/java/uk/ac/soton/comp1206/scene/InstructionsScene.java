@@ -42,7 +42,7 @@ public class InstructionsScene extends BaseScene {
         var instructionsPane = new StackPane();
         instructionsPane.setMaxWidth(gameWindow.getWidth());
         instructionsPane.setMaxHeight(gameWindow.getHeight());
-        instructionsPane.getStyleClass().add(SettingsScene.menuTheme.getText());
+        applyTheme(instructionsPane, SettingsScene.menuTheme.getText());
 
 
         var mainPane = new BorderPane();
@@ -62,8 +62,7 @@ public class InstructionsScene extends BaseScene {
         //Center area
 
         // Creates an image for the instructions
-        Image instructionsImage =
-            new Image(getClass().getResourceAsStream("/images/Instructions.png"));
+        Image instructionsImage = Multimedia.getImage("Instructions.png");
         ImageView instructionsImageView = new ImageView(instructionsImage);
         instructionsImageView.setPreserveRatio(true);
         instructionsImageView.setFitWidth(600); // Sets the width or height as needed
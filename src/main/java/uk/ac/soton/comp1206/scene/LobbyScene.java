@@ -106,7 +106,10 @@ public class LobbyScene extends BaseScene {
       */
     private void requestChannelList() {
         if (communicator != null) {
-            communicator.send("LIST");
+            //Polls are not worth keeping while reconnecting, the next one after will do
+            if (communicator.isConnected()) {
+                communicator.send("LIST");
+            }
 
         } else {
             // Handle the case where the communicator is not initialized
@@ -498,7 +501,7 @@ public class LobbyScene extends BaseScene {
         var menuPane = new StackPane();
         menuPane.setMaxWidth(gameWindow.getWidth());
         menuPane.setMaxHeight(gameWindow.getHeight());
-        menuPane.getStyleClass().add(SettingsScene.menuTheme.getText());
+        applyTheme(menuPane, SettingsScene.menuTheme.getText());
         root.getChildren().add(menuPane);
 
         mainPane = new BorderPane();
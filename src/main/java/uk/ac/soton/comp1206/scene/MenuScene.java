@@ -7,14 +7,15 @@ import javafx.animation.Timeline;
 import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
+import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.*;
 import javafx.util.Duration;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import uk.ac.soton.comp1206.Multimedia;
+import uk.ac.soton.comp1206.network.Communicator;
 import uk.ac.soton.comp1206.ui.GamePane;
 import uk.ac.soton.comp1206.ui.GameWindow;
 
@@ -53,7 +54,7 @@ public class MenuScene extends BaseScene {
         var menuPane = new StackPane();
         menuPane.setMaxWidth(gameWindow.getWidth());
         menuPane.setMaxHeight(gameWindow.getHeight());
-        menuPane.getStyleClass().add(SettingsScene.menuTheme.getText());
+        applyTheme(menuPane, SettingsScene.menuTheme.getText());
         root.getChildren().add(menuPane);
 
         var mainPane = new BorderPane();
@@ -62,7 +63,7 @@ public class MenuScene extends BaseScene {
 
         //image title
         var titleImage =
-            new ImageView(new Image(getClass().getResourceAsStream("/images/TetrECS.png")));
+            new ImageView(Multimedia.getImage("TetrECS.png"));
         titleImage.setPreserveRatio(true);
         titleImage.setFitWidth(600);
 
@@ -130,10 +131,24 @@ public class MenuScene extends BaseScene {
             logger.info("Instructions");
         });
 
+        //Multiplayer needs the server, so wait while still connecting
+        Communicator communicator = gameWindow.getCommunicator();
+        multiplayerButton.disableProperty().bind(
+            communicator.stateProperty().isEqualTo(Communicator.State.CONNECTING));
         multiplayerButton.setOnAction(event -> {
             Multimedia.playAudio("transition.wav");
-            gameWindow.startLobbyScene();
             logger.info("multiplayer option");
+            //Tries again if the server could not be reached before
+            communicator.connect().whenComplete((connected, error) -> Platform.runLater(() -> {
+                if (gameWindow.getCurrentScene() != this) {
+                    return;
+                }
+                if (error == null) {
+                    gameWindow.startLobbyScene();
+                } else {
+                    showOffline();
+                }
+            }));
         });
 
         exit.setOnAction(event -> {
@@ -148,9 +163,14 @@ public class MenuScene extends BaseScene {
         });
 
     }
-    }
-
-
-
-
 
+    /**
+     * Tells the player the server could not be reached, without blocking the menu
+     */
+    private void showOffline() {
+        Alert alert = new Alert(Alert.AlertType.ERROR,
+            "Unable to communicate with the TetrECS server\n\nPlease ensure you are connected to the VPN");
+        alert.setHeaderText(null);
+        alert.show();
+    }
+}
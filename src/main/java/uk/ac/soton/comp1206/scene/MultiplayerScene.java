@@ -50,7 +50,8 @@ public class MultiplayerScene extends ChallengeScene {
       */
     public void buildBoard() {
         board =
-            new GameBoard(game.getGrid(), gameWindow.getWidth() / 2.2, gameWindow.getWidth() / 2.2);
+            new GameBoard(game.getGrid(), gameWindow.getWidth() / 2.2, gameWindow.getWidth() / 2.2,
+                GameBoard.Mode.CANVAS);
     }
 
     /**
@@ -168,6 +169,7 @@ public class MultiplayerScene extends ChallengeScene {
                         Multimedia.stopMusic();
                         Multimedia.playAudio("transition.wav");
                         stopTimer();
+                        stopTimerBar();
                         game.stopGameLoop();
                         communicator.send("DIE");
                         gameWindow.startMenu();
@@ -177,7 +179,7 @@ public class MultiplayerScene extends ChallengeScene {
                     case UP:
                         if (y > 0) {
                             y--;
-                            board.hover(board.getBlock(x, y));
+                            board.hover(x, y);
                             logger.info("up pressed");
                         }
                         break;
@@ -185,7 +187,7 @@ public class MultiplayerScene extends ChallengeScene {
                     case DOWN:
                         if (y < game.getRows() - 1) {
                             y++;
-                            board.hover(board.getBlock(x, y));
+                            board.hover(x, y);
                             logger.info("down pressed");
 
                         }
@@ -194,7 +196,7 @@ public class MultiplayerScene extends ChallengeScene {
                     case LEFT:
                         if (x > 0) {
                             x--;
-                            board.hover(board.getBlock(x, y));
+                            board.hover(x, y);
                             logger.info("left pressed");
                         }
                         break;
@@ -202,7 +204,7 @@ public class MultiplayerScene extends ChallengeScene {
                     case RIGHT:
                         if (x < game.getCols() - 1) {
                             x++;
-                            board.hover(board.getBlock(x, y));
+                            board.hover(x, y);
                             logger.info("right pressed");
 
                         }
@@ -226,7 +228,7 @@ public class MultiplayerScene extends ChallengeScene {
      */
     public void handleChatField() {
         chatField.setOnKeyPressed(event -> {
-            board.getBlock(x, y).removeHover(); //to allow pressing enter without placing piece
+            board.clearHover(); //to allow pressing enter without placing piece
             if (event.getCode() == KeyCode.ENTER) {
                 logger.info("pressed enter");
                 String text = chatField.getText().trim();
@@ -283,6 +285,10 @@ public class MultiplayerScene extends ChallengeScene {
         TimerTask refresh = new TimerTask() {
             @Override
             public void run() {
+                //Skipped while reconnecting, the game resynchronises once the connection is back
+                if (!communicator.isConnected()) {
+                    return;
+                }
                 communicator.send("SCORE " + game.getScore());
                 communicator.send("LIVES " + game.getLives());
                 communicator.send("SCORES");
@@ -299,6 +305,7 @@ public class MultiplayerScene extends ChallengeScene {
     protected void gameOver() {
 
         stopTimer();
+        Platform.runLater(this::stopTimerBar);
         communicator.send("DIE");
         logger.info("game over");
         Platform.runLater(() -> gameWindow.startScoreScene(multiplayerGame));
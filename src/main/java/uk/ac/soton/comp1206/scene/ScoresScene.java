@@ -77,7 +77,7 @@ public class ScoresScene extends BaseScene {
         var scorePane = new StackPane();
         scorePane.setMaxWidth(gameWindow.getWidth());
         scorePane.setMaxHeight(gameWindow.getHeight());
-        scorePane.getStyleClass().add(SettingsScene.menuTheme.getText());
+        applyTheme(scorePane, SettingsScene.menuTheme.getText());
         root.getChildren().add(scorePane);
 
         var mainPane = new BorderPane();
@@ -183,10 +183,15 @@ public class ScoresScene extends BaseScene {
 
     /**
      * Method to request online scores from the server
+     * Waits for the connection, so only the local scores are shown if the server cannot be reached
      */
     public void loadOnlineScores() {
-        communicator.send("HISCORES");
-
+        communicator.connect()
+            .thenRun(() -> communicator.send("HISCORES"))
+            .exceptionally(error -> {
+                logger.warn("Server unavailable, showing local scores only");
+                return null;
+            });
     }
 
 
@@ -197,6 +202,10 @@ public class ScoresScene extends BaseScene {
      * @param score: new high score
      */
     private void writeOnlineScore(String name, Integer score) {
+        if (!communicator.isConnected()) {
+            logger.warn("Server unavailable, online score not saved");
+            return;
+        }
         communicator.send("HISCORE " + name + ":" + score);
     }
 
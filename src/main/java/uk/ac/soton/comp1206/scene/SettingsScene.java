@@ -180,7 +180,7 @@ public class SettingsScene extends BaseScene {
         var settingsPane = new StackPane();
         settingsPane.setMaxWidth(gameWindow.getWidth());
         settingsPane.setMaxHeight(gameWindow.getHeight());
-        settingsPane.getStyleClass().add(SettingsScene.menuTheme.getText());
+        applyTheme(settingsPane, SettingsScene.menuTheme.getText());
         root.getChildren().add(settingsPane);
 
         var mainPane = new BorderPane();
@@ -241,8 +241,8 @@ public class SettingsScene extends BaseScene {
         audioSlider.setMajorTickUnit(25);
 
         audioSlider.valueProperty().addListener((observable, oldValue, newValue) -> {
+            //Each sound effect takes the volume as it starts
             audioVolume = (int) audioSlider.getValue();
-            Multimedia.audioPlayer.setVolume(audioVolume / 100);
         });
         audioBox.getChildren().addAll(audioText, audioSlider);
 
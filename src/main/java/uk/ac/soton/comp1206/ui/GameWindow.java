@@ -2,19 +2,22 @@ package uk.ac.soton.comp1206.ui;
 
 import javafx.animation.FadeTransition;
 import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
 import javafx.scene.Scene;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.Pane;
 import javafx.scene.layout.StackPane;
 import javafx.scene.paint.Color;
-import javafx.scene.text.Font;
 import javafx.stage.Stage;
 import javafx.util.Duration;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import uk.ac.soton.comp1206.App;
 import uk.ac.soton.comp1206.Multimedia;
+import uk.ac.soton.comp1206.ResourceRegistry;
 import uk.ac.soton.comp1206.game.Game;
 import uk.ac.soton.comp1206.game.GamePiece;
 import uk.ac.soton.comp1206.network.Communicator;
@@ -64,8 +67,9 @@ public class GameWindow {
         //Setup default scene
         setupDefaultScene();
 
-        //Setup communicator
+        //Setup communicator, connecting in the background so single player never waits on the network
         communicator = new Communicator("ws://ofb-labs.soton.ac.uk:9700");
+        communicator.connect();
 
         //initial scene started
         start();
@@ -74,14 +78,14 @@ public class GameWindow {
 
     /**
      * Setup the font and any other resources we need
+     * Everything is loaded in the background while the splash screen shows
      */
     private void setupResources() {
         logger.info("Loading resources");
 
         //We need to load fonts here due to the Font loader bug with spaces in URLs in the CSS files
-        Font.loadFont(getClass().getResourceAsStream("/style/Orbitron-Regular.ttf"), 32);
-        Font.loadFont(getClass().getResourceAsStream("/style/Orbitron-Bold.ttf"), 32);
-        Font.loadFont(getClass().getResourceAsStream("/style/Orbitron-ExtraBold.ttf"), 32);
+        //The fonts, images, music and sounds are all loaded by the registry
+        ResourceRegistry.preload();
     }
 
     /**
@@ -100,15 +104,22 @@ public class GameWindow {
     public void start() {
         // Create an initial Pane for the fade in image
         logger.info("fade in scene");
-        Multimedia.playAudio("intro.mp3");
+        ResourceRegistry.whenSoundsLoaded().thenRun(() -> Multimedia.playAudio("intro.mp3"));
         StackPane splashScreen = new StackPane();
         splashScreen.setStyle("-fx-background-color: black;");
-        Image image = new Image(getClass().getResourceAsStream("/images/ECSGames.png"));
+        Image image = ResourceRegistry.getImage("ECSGames.png");
         ImageView imageView = new ImageView(image);
         imageView.fitWidthProperty().bind(splashScreen.widthProperty().multiply(0.75));
         imageView.setPreserveRatio(true);
         imageView.setSmooth(true);
-        splashScreen.getChildren().add(imageView);
+
+        // Shows how much is left to load underneath the image
+        ProgressBar progressBar = new ProgressBar();
+        progressBar.progressProperty().bind(ResourceRegistry.progressProperty());
+        progressBar.prefWidthProperty().bind(splashScreen.widthProperty().multiply(0.5));
+        StackPane.setAlignment(progressBar, Pos.BOTTOM_CENTER);
+        StackPane.setMargin(progressBar, new Insets(0, 0, 40, 0));
+        splashScreen.getChildren().addAll(imageView, progressBar);
 
         // Set the initial Scene
         Scene initialScene = new Scene(splashScreen, width, height);
@@ -119,7 +130,9 @@ public class GameWindow {
         FadeTransition fadeTransition = new FadeTransition(Duration.seconds(4), imageView);
         fadeTransition.setFromValue(0);
         fadeTransition.setToValue(1);
-        fadeTransition.setOnFinished(event -> startMenu()); // After fade in, start the menu
+        // After fade in, start the menu once everything has loaded, or failed to
+        fadeTransition.setOnFinished(event -> ResourceRegistry.preload()
+            .whenComplete((result, error) -> Platform.runLater(this::startMenu)));
         fadeTransition.play();
     }
 
@@ -225,6 +238,9 @@ public class GameWindow {
     public void cleanup() {
         logger.info("Clearing up previous scene");
         communicator.clearListeners();
+        if (currentScene != null) {
+            currentScene.cleanup();
+        }
     }
 
     /**
@@ -254,6 +270,15 @@ public class GameWindow {
         return this.height;
     }
 
+    /**
+     * Get the scene being shown
+     *
+     * @return the current scene
+     */
+    public BaseScene getCurrentScene() {
+        return currentScene;
+    }
+
     /**
      * Get the communicator
      *